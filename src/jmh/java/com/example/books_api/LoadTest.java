@@ -0,0 +1,162 @@
+package com.example.books_api;
+
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.services.BookService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares Tomcat's platform-thread pool with virtual threads plus the database concurrency limiter, at 1k, 5k and 10k
+ * concurrent clients. Each client sends a few uncached listing requests. The connection pool is kept small so that
+ * the database, not the CPU, is the bottleneck. In-memory H2 answers in microseconds, so every connection is held for
+ * an extra {@code loadtest.latency-ms} (5 by default) after it is checked out, standing in for a database round trip.
+ * Raise the open-file limit above the client count, then run:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:java -Dexec.mainClass=com.example.books_api.LoadTest -Dexec.classpathScope=test
+ * </pre>
+ */
+public final class LoadTest {
+    private static final int[] CLIENTS = {1_000, 5_000, 10_000};
+    private static final int REQUESTS_PER_CLIENT = 5;
+    private static final int POOL_SIZE = 4;
+    private static final long LATENCY_MS = Long.getLong("loadtest.latency-ms", 5);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) {
+        System.out.printf("database latency %d ms%n", LATENCY_MS);
+        System.out.printf("%-9s %8s %10s %9s %9s %8s%n", "threads", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                seed(context.getBean(BookService.class));
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                for (int clients : CLIENTS) {
+                    run(virtual ? "virtual" : "platform", port, clients);
+                }
+            }
+        }
+    }
+
+    /**
+     * The settings are passed as command-line arguments, which unlike the builder's default properties take precedence
+     * over {@code application.properties}.
+     */
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(BooksApiApplication.class)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowDatabase()))
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.max-connections=20000",
+                        "--server.tomcat.accept-count=10000",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + virtual
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=password",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.hikari.connection-timeout=2000",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=warn"
+                );
+    }
+
+    private static void seed(BookService bookService) {
+        List<BookEntity> books = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            AuthorEntity author = AuthorEntity.builder().name("Author " + i).age(20 + i % 60).build();
+            books.add(BookEntity.builder().isbn("978-0-%06d".formatted(i)).title("Title " + i).authorEntity(author)
+                    .build());
+        }
+        bookService.saveBooks(books);
+    }
+
+    private static void run(String threads, int port, int clients) {
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long started = System.nanoTime();
+        try (HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                clientThreads.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        URI uri = URI.create("http://localhost:%d/books?page=%d&size=20"
+                                .formatted(port, (client + r) % 50));
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(
+                                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) errors.incrementAndGet();
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(sorted);
+        System.out.printf("%-9s %8d %10.0f %9.1f %9.1f %8d%n", threads, clients, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get());
+    }
+
+    /**
+     * Not a bean, so that the application's component scan never picks it up outside this test.
+     */
+    private static final class SlowDatabase implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (LATENCY_MS == 0 || !(bean instanceof HikariDataSource pool)) return bean;
+
+            return new DelegatingDataSource(pool) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    Connection connection = super.getConnection();
+                    try {
+                        Thread.sleep(LATENCY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return connection;
+                }
+            };
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.books_api.config;
+
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a 1,000-row {@code GET /books} page as JSON, Smile and CBOR, with the factories the converters
+ * use. The payload size of each format is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+    private static final int ROWS = 1_000;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private Page<BookView> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "smile" -> builder.factory(BinaryFormatsConfig.smileFactory()).build();
+            case "cbor" -> builder.factory(BinaryFormatsConfig.cborFactory()).build();
+            default -> builder.build();
+        };
+
+        List<BookView> books = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            AuthorView author = new AuthorView((long) i % 50, "Author " + i % 50, 20 + i % 60, 0);
+            books.add(new BookView("978-0-%06d".formatted(i), "Title number " + i, author, 0));
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, ROWS), 100_000);
+
+        encoded = objectMapper.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d rows: %d bytes%n", format, ROWS, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws Exception {
+        return objectMapper.readTree(encoded);
+    }
+}
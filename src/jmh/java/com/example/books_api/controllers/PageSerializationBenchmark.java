@@ -0,0 +1,68 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.dto.PageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson cost of a {@code GET /books} body, comparing the reflective {@code PageImpl} serialization the
+ * endpoint used to return with the hand-written {@link PageDto} envelope. Run with {@code -prof gc} to compare
+ * allocation per page as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<BookDto> page;
+    private PageDto<BookDto> envelope;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<BookDto> books = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            AuthorDto author = AuthorDto.builder().id((long) i % 50).name("Author " + i % 50).age(20 + i % 60).build();
+            books.add(BookDto.builder().isbn("978-0-%06d".formatted(i)).title("Title number " + i).author(author).build());
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize), 100_000);
+        envelope = PageDto.of(page);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.books_api.mappers.impl;
+
+import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written mappers with the ModelMapper configuration they replaced (LOOSE matching).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private BookMapperImpl bookMapper;
+    private AuthorMapperImpl authorMapper;
+    private ModelMapper modelMapper;
+    private AuthorEntity authorEntity;
+    private AuthorDto authorDto;
+    private BookEntity bookEntity;
+    private BookDto bookDto;
+
+    @Setup
+    public void setUp() {
+        authorMapper = new AuthorMapperImpl();
+        bookMapper = new BookMapperImpl(authorMapper);
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+
+        authorEntity = AuthorEntity.builder().id(1L).name("Jane Foster").age(49).build();
+        authorDto = AuthorDto.builder().id(1L).name("Jane Foster").age(49).build();
+        bookEntity = BookEntity.builder()
+                .isbn("978-1-2345-6789-0")
+                .title("Three Ways to Survive in the Ruined World")
+                .authorEntity(authorEntity)
+                .build();
+        bookDto = BookDto.builder()
+                .isbn("978-1-2345-6789-0")
+                .title("Three Ways to Survive in the Ruined World")
+                .author(authorDto)
+                .build();
+    }
+
+    @Benchmark
+    public BookDto handWrittenMapTo() {
+        return bookMapper.mapTo(bookEntity);
+    }
+
+    @Benchmark
+    public BookDto modelMapperMapTo() {
+        return modelMapper.map(bookEntity, BookDto.class);
+    }
+
+    @Benchmark
+    public BookEntity handWrittenMapFrom() {
+        return bookMapper.mapFrom(bookDto);
+    }
+
+    @Benchmark
+    public BookEntity modelMapperMapFrom() {
+        return modelMapper.map(bookDto, BookEntity.class);
+    }
+
+    @Benchmark
+    public AuthorDto handWrittenAuthorMapTo() {
+        return authorMapper.mapTo(authorEntity);
+    }
+
+    @Benchmark
+    public AuthorDto modelMapperAuthorMapTo() {
+        return modelMapper.map(authorEntity, AuthorDto.class);
+    }
+
+    @Benchmark
+    public AuthorEntity handWrittenAuthorMapFrom() {
+        return authorMapper.mapFrom(authorDto);
+    }
+
+    @Benchmark
+    public AuthorEntity modelMapperAuthorMapFrom() {
+        return modelMapper.map(authorDto, AuthorEntity.class);
+    }
+}
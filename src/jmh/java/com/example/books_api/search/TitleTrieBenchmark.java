@@ -0,0 +1,87 @@
+package com.example.books_api.search;
+
+import com.example.books_api.domain.dto.SuggestionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion latency for catalogs of different sizes. Setup also prints the heap retained by the trie, scaled to a
+ * million titles; the figure comes from heap usage before and after the build, so treat it as approximate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TitleTrieBenchmark {
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ner", "sha", "tor", "vel", "din", "ra", "sun", "gor", "eth", "qui", "bal", "zen", "pho"
+    };
+
+    @Param({"10000", "1000000"})
+    private int titles;
+
+    private TitleTrie trie;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[5_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 0, length = 1 + random.nextInt(3); s < length; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+
+        long before = usedHeap();
+        trie = new TitleTrie();
+        for (int i = 0; i < titles; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0, words = 2 + random.nextInt(5); w < words; w++) {
+                if (w > 0) title.append(' ');
+                title.append(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            trie.put("978-%09d".formatted(i), title.toString());
+        }
+        long retained = usedHeap() - before;
+        System.out.printf("%n%d titles retain ~%d MB, ~%d MB per million titles%n",
+                titles, retained >> 20, (retained * 1_000_000L / titles) >> 20);
+
+        prefixes = new String[1_024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            prefixes[i] = word.substring(0, Math.min(word.length(), 1 + i % 4));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public List<SuggestionDto> suggest() {
+        next = (next + 1) & (prefixes.length - 1);
+        return trie.suggest(prefixes[next], 10);
+    }
+}
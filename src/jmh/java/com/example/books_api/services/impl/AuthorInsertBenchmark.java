@@ -0,0 +1,76 @@
+package com.example.books_api.services.impl;
+
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.services.AuthorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts 100,000 authors per invocation, so the scores read directly as inserts per second: {@code createAuthors}
+ * goes through {@code POST /authors:batch}'s batched path, {@code saveAuthorEach} through one {@code POST /authors}
+ * transaction per author.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AuthorInsertBenchmark {
+    static final int AUTHORS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private AuthorService authorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceBenchmark.startContext("authorinsertbenchmark");
+        authorService = context.getBean(AuthorService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static List<AuthorEntity> authors() {
+        List<AuthorEntity> authors = new ArrayList<>(AUTHORS);
+        for (int i = 0; i < AUTHORS; i++) {
+            authors.add(AuthorEntity.builder().name("Author " + i).age(20 + i % 60).build());
+        }
+        return authors;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AUTHORS)
+    public List<AuthorEntity> createAuthors() {
+        return authorService.createAuthors(authors());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AUTHORS)
+    public int saveAuthorEach() {
+        int saved = 0;
+        for (AuthorEntity author : authors()) {
+            authorService.saveAuthor(author);
+            saved++;
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.books_api.services.impl;
+
+import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.dto.BookView;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.mappers.impl.AuthorMapperImpl;
+import com.example.books_api.mappers.impl.BookMapperImpl;
+import com.example.books_api.repositories.AuthorRepository;
+import com.example.books_api.repositories.BookRepository;
+import com.example.books_api.services.AuthorService;
+import com.example.books_api.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the entity read path (hydrate a managed entity, then map it to a DTO) with the projection read path that
+ * selects straight into {@link BookView} and {@link AuthorView}. The caches are bypassed. Allocation per operation is
+ * the interesting number, so run it with the GC profiler:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ReadPathBenchmark -prof gc"
+ * </pre>
+ * and compare {@code gc.alloc.rate.norm} between the {@code entity*} and {@code view*} methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private AuthorRepository authorRepository;
+    private BookMapperImpl bookMapper;
+    private AuthorMapperImpl authorMapper;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceBenchmark.startContext("readpathbenchmark");
+        bookRepository = context.getBean(BookRepository.class);
+        authorRepository = context.getBean(AuthorRepository.class);
+        bookMapper = context.getBean(BookMapperImpl.class);
+        authorMapper = context.getBean(AuthorMapperImpl.class);
+
+        AuthorService authorService = context.getBean(AuthorService.class);
+        List<AuthorEntity> authors = new ArrayList<>(ServiceBenchmark.AUTHORS);
+        for (int i = 0; i < ServiceBenchmark.AUTHORS; i++) {
+            authors.add(authorService.saveAuthor(AuthorEntity.builder().name("Author " + i).age(20 + i % 60).build()));
+        }
+        List<BookEntity> books = new ArrayList<>(ServiceBenchmark.BOOKS);
+        for (int i = 0; i < ServiceBenchmark.BOOKS; i++) {
+            books.add(BookEntity.builder()
+                    .isbn(ServiceBenchmark.isbn(i))
+                    .title("Title number " + i)
+                    .authorEntity(authors.get(i % ServiceBenchmark.AUTHORS))
+                    .build());
+        }
+        context.getBean(BookService.class).saveBooks(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String nextIsbn() {
+        next = (next + 1) % ServiceBenchmark.BOOKS;
+        return ServiceBenchmark.isbn(next);
+    }
+
+    @Benchmark
+    public Optional<BookDto> entityBook() {
+        return bookRepository.findById(nextIsbn()).map(bookMapper::mapTo);
+    }
+
+    @Benchmark
+    public Optional<BookView> viewBook() {
+        return bookRepository.findViewByIsbn(nextIsbn());
+    }
+
+    @Benchmark
+    public Page<AuthorDto> entityAuthorPage() {
+        return authorRepository.findAll(PageRequest.of(next++ % 5, 20)).map(authorMapper::mapTo);
+    }
+
+    @Benchmark
+    public Page<AuthorView> viewAuthorPage() {
+        return authorRepository.findAllViews(PageRequest.of(next++ % 5, 20));
+    }
+}
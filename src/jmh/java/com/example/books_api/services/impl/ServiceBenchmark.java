@@ -0,0 +1,138 @@
+package com.example.books_api.services.impl;
+
+import com.example.books_api.BooksApiApplication;
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookView;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.services.AuthorService;
+import com.example.books_api.services.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the service layer against an embedded H2 database in PostgreSQL mode, seeded with 100 authors and 1,000 books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    static final int AUTHORS = 100;
+    static final int BOOKS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private AuthorService authorService;
+    private Long authorId;
+    private int next;
+
+    static ConfigurableApplicationContext startContext(String database) {
+        return new SpringApplicationBuilder(BooksApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=password",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "logging.level.root=warn"
+                )
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = startContext("servicebenchmark");
+        bookService = context.getBean(BookService.class);
+        authorService = context.getBean(AuthorService.class);
+
+        List<AuthorEntity> authors = new ArrayList<>(AUTHORS);
+        for (int i = 0; i < AUTHORS; i++) {
+            authors.add(authorService.saveAuthor(AuthorEntity.builder().name("Author " + i).age(20 + i % 60).build()));
+        }
+        authorId = authors.getFirst().getId();
+
+        List<BookEntity> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(BookEntity.builder()
+                    .isbn(isbn(i))
+                    .title("Title number " + i)
+                    .authorEntity(authors.get(i % AUTHORS))
+                    .build());
+        }
+        bookService.saveBooks(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    static String isbn(int i) {
+        return "978-0-%06d".formatted(i);
+    }
+
+    private String nextIsbn() {
+        next = (next + 1) % BOOKS;
+        return isbn(next);
+    }
+
+    @Benchmark
+    public Optional<BookView> findBook() {
+        return bookService.findOne(nextIsbn());
+    }
+
+    @Benchmark
+    public boolean bookIsPresent() {
+        return bookService.isPresent(nextIsbn());
+    }
+
+    @Benchmark
+    public Page<BookView> listBooks() {
+        return bookService.findAll(PageRequest.of(next++ % 50, 20));
+    }
+
+    @Benchmark
+    public Optional<BookEntity> partialUpdateBook() {
+        return bookService.partialUpdate(nextIsbn(), BookEntity.builder().title("Updated title").build());
+    }
+
+    @Benchmark
+    public Optional<AuthorView> findAuthor() {
+        return authorService.findOne(authorId);
+    }
+
+    @Benchmark
+    public Page<AuthorView> listAuthors() {
+        return authorService.findAll(PageRequest.of(next++ % 5, 20));
+    }
+
+    @Benchmark
+    public Optional<AuthorEntity> partialUpdateAuthor() {
+        return authorService.partialUpdateAuthor(authorId, AuthorEntity.builder().age(next++ % 90).build());
+    }
+}
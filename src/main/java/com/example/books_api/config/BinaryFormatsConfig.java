@@ -0,0 +1,46 @@
+package com.example.books_api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Smile and CBOR converters for clients that send {@code Accept: application/x-jackson-smile} or
+ * {@code application/cbor}, built from the same Jackson settings as the JSON one.
+ * <p>
+ * Both formats are told to back-reference repeated strings. Smile already does so for field names, and with shared
+ * string values enabled it also does so for the author names repeated across a page. CBOR uses the stringref extension
+ * for keys and values alike. Jackson cannot share whole objects in either format, so a repeated author costs one
+ * small map of back-references rather than nothing.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    static CBORFactory cborFactory() {
+        return CBORFactory.builder().enable(CBORGenerator.Feature.STRINGREF).build();
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(cborFactory()).build());
+    }
+}
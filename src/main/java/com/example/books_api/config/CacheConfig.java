@@ -0,0 +1,46 @@
+package com.example.books_api.config;
+
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through caches for single book and author lookups. Absent keys are cached as {@link Optional#empty()} so that
+ * repeated misses do not reach the database either.
+ */
+@Configuration
+public class CacheConfig {
+    private final long maximumSize;
+    private final Duration timeToLive;
+
+    CacheConfig(@Value("${books-api.cache.maximum-size:10000}") long maximumSize,
+                @Value("${books-api.cache.time-to-live:10m}") Duration timeToLive) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+    }
+
+    @Bean
+    public Cache<String, Optional<BookView>> bookCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public Cache<Long, Optional<AuthorView>> authorCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+}
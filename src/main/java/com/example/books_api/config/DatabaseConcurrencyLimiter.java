@@ -0,0 +1,76 @@
+package com.example.books_api.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of threads doing database work at the size of the connection pools. On virtual threads Tomcat no
+ * longer bounds concurrency, and without this cap thousands of requests would queue inside Hikari until they time out.
+ * Instead they park on a fair semaphore, and get a 503 if no permit frees up in time.
+ * <p>
+ * A permit is taken around transactional methods and repository calls, ahead of the transaction interceptor, and only
+ * by the outermost one on a thread, since a transaction keeps its connection until it ends. Cache hits never wait.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseConcurrencyLimiter {
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    /**
+     * With a replica the permits cover both pools. Which pool a thread ends up on is only known once its first
+     * statement runs, so writes may briefly outnumber the primary's connections; the surplus waits in Hikari, for at
+     * most its connection timeout, instead of on the semaphore.
+     */
+    DatabaseConcurrencyLimiter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                               @Value("${books-api.replica.url:}") String replicaUrl,
+                               @Value("${books-api.replica.hikari.maximum-pool-size:10}") int replicaPoolSize,
+                               @Value("${books-api.db-limiter.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(replicaUrl.isEmpty() ? poolSize : poolSize + replicaPoolSize, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || target(org.springframework.data.repository.Repository)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        int outer = depth.get();
+        if (outer == 0 && !permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new DatabaseBusyException();
+        }
+
+        depth.set(outer + 1);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (outer == 0) {
+                depth.remove();
+                permits.release();
+            } else {
+                depth.set(outer);
+            }
+        }
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class DatabaseBusyException extends RuntimeException {
+        DatabaseBusyException() {
+            super("No database connection became available in time.");
+        }
+    }
+}
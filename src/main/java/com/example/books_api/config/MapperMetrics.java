@@ -0,0 +1,77 @@
+package com.example.books_api.config;
+
+import com.example.books_api.mappers.Mapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Times every call to a {@code Mapper} bean as {@code books.mapper}, tagged with the mapper class and method. Each bean
+ * is wrapped in a {@link TimedMapper} holding its two timers, so a call does no lookup. Only the outermost mapping on a
+ * thread is recorded: the book mapper's time includes its author, which is not counted a second time under the author
+ * mapper.
+ */
+@Component
+class MapperMetrics implements BeanPostProcessor {
+    private static final String TIMER = "books.mapper";
+    private static final ThreadLocal<Boolean> MAPPING = new ThreadLocal<>();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * The registry is looked up only when the first mapper is wrapped, so it is not created ahead of the post-processors
+     * that configure it.
+     */
+    MapperMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Mapper<?, ?> mapper) return timed(mapper);
+        return bean;
+    }
+
+    private <A, B> Mapper<A, B> timed(Mapper<A, B> mapper) {
+        String name = mapper.getClass().getSimpleName();
+        return new TimedMapper<>(mapper, timer(name, "mapTo"), timer(name, "mapFrom"));
+    }
+
+    private Timer timer(String mapper, String method) {
+        return Timer.builder(TIMER)
+                .description("Time spent mapping between entities and DTOs")
+                .tag("mapper", mapper)
+                .tag("method", method)
+                .register(meterRegistry.getObject());
+    }
+
+    private record TimedMapper<A, B>(Mapper<A, B> mapper, Timer mapTo, Timer mapFrom) implements Mapper<A, B> {
+        @Override
+        public B mapTo(A a) {
+            return time(mapTo, mapper::mapTo, a);
+        }
+
+        @Override
+        public A mapFrom(B b) {
+            return time(mapFrom, mapper::mapFrom, b);
+        }
+
+        private static <T, R> R time(Timer timer, Function<T, R> mapping, T value) {
+            if (MAPPING.get() != null) return mapping.apply(value);
+
+            MAPPING.set(Boolean.TRUE);
+            long started = System.nanoTime();
+            try {
+                return mapping.apply(value);
+            } finally {
+                timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                MAPPING.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.books_api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Target for read-only connections: the replica, unless {@link ReadRouting} pins the thread to the primary.
+ */
+class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    ReadOnlyRoutingDataSource(DataSource replica, DataSource primary) {
+        setTargetDataSources(Map.of(Target.REPLICA, replica, Target.PRIMARY, primary));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadRouting.primary() ? Target.PRIMARY : Target.REPLICA;
+    }
+}
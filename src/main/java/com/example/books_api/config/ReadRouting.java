@@ -0,0 +1,44 @@
+package com.example.books_api.config;
+
+/**
+ * Whether the reads on the current thread may go to the replica. Read-only transactions normally do; this sends them
+ * to the primary instead while a client is inside its read-your-writes window, or for reads that must not lag behind
+ * it. Without a replica configured every read goes to the primary anyway and this has no effect.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {}
+
+    /**
+     * Whether the thread is pinned to the primary. Caches filled by replica reads should not answer it either.
+     */
+    public static boolean primary() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * Runs {@code reads} against the primary, read-only transactions included.
+     */
+    public static void onPrimary(Runnable reads) {
+        boolean outer = pinPrimary();
+        try {
+            reads.run();
+        } finally {
+            unpin(outer);
+        }
+    }
+
+    /**
+     * Returns whether the thread was already pinned, to be handed back to {@link #unpin(boolean)}.
+     */
+    static boolean pinPrimary() {
+        boolean outer = primary();
+        PRIMARY.set(Boolean.TRUE);
+        return outer;
+    }
+
+    static void unpin(boolean outer) {
+        if (!outer) PRIMARY.remove();
+    }
+}
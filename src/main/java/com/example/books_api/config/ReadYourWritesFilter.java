@@ -0,0 +1,54 @@
+package com.example.books_api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Reads the primary on behalf of a client for {@code window} after each of its writes, so that it sees its own
+ * changes however far the replica lags. Clients opt in by sending {@code X-Client-Id}; requests without it are routed
+ * by transaction type alone. The write request itself is pinned as well.
+ * <p>
+ * Streamed exports query on another thread after the request has returned, and always read the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Cache<String, Boolean> recentWriters;
+
+    ReadYourWritesFilter(Duration window, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader(CLIENT_HEADER);
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (client == null || (!write && recentWriters.getIfPresent(client) == null)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean outer = ReadRouting.pinPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.unpin(outer);
+            if (write) recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.books_api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Wraps connections, statements and result sets in JDK proxies that report every execution to
+ * {@link SqlStatementStats} and log the ones slower than {@code slowThreshold}, naming the controller method that
+ * issued them. A batch counts as one statement, since it is one round trip.
+ */
+@Slf4j
+class RecordingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final long slowThresholdNanos;
+
+    RecordingDataSource(DataSource target, Duration slowThreshold) {
+        super(target);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Closes the pool underneath, which the container would otherwise never shut down: it only sees this wrapper.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) pool.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), this::connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), this::connection);
+    }
+
+    private Object connection(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return proxy(method.getReturnType(), statement, (target, m, a) -> statement(target, m, a, sql));
+        }
+        return result;
+    }
+
+    private Object statement(Object statement, Method method, Object[] args, String preparedSql) throws Throwable {
+        if (!EXECUTE_METHODS.contains(method.getName())) {
+            Object result = invoke(statement, method, args);
+            return method.getName().equals("getResultSet") ? resultSet(result) : result;
+        }
+
+        long started = System.nanoTime();
+        Object result = invoke(statement, method, args);
+        long elapsed = System.nanoTime() - started;
+
+        SqlStatementStats.statement(elapsed);
+        switch (result) {
+            case Integer count -> SqlStatementStats.rows(Math.max(count, 0));
+            case Long count -> SqlStatementStats.rows(Math.max(count, 0));
+            case int[] counts -> {
+                for (int count : counts) SqlStatementStats.rows(Math.max(count, 0));
+            }
+            case long[] counts -> {
+                for (long count : counts) SqlStatementStats.rows(Math.max(count, 0));
+            }
+            case null, default -> { }
+        }
+        if (elapsed >= slowThresholdNanos) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            log.warn("Slow SQL took {} ms in {}: {}", elapsed / 1_000_000, origin(), sql);
+        }
+        return resultSet(result);
+    }
+
+    private static Object resultSet(Object result) {
+        if (!(result instanceof ResultSet resultSet)) return result;
+
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object value = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(value)) SqlStatementStats.rows(1);
+            return value;
+        });
+    }
+
+    private static String origin() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+                instanceof HandlerMethod handler) {
+            return handler.getShortLogMessage();
+        }
+        return Thread.currentThread().getName();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
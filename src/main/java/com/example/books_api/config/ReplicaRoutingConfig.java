@@ -0,0 +1,82 @@
+package com.example.books_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to a replica once {@code books-api.replica.url} is set, and everything else to the
+ * primary configured under {@code spring.datasource}. Without that property Boot's single data source is left alone.
+ * <p>
+ * Each pool is a bean of its own, so each gets its own {@link RecordingDataSource} and pool metrics. The primary pool
+ * takes its settings from {@code spring.datasource.hikari.*} as Boot's own would, the replica pool from
+ * {@code books-api.replica.hikari.*}. Hibernate uses a
+ * {@link LazyConnectionDataSourceProxy} over the two, which only picks a pool when the first statement runs, by which
+ * time the transaction has marked the connection read-only or not.
+ */
+@Configuration
+@ConditionalOnProperty("books-api.replica.url")
+public class ReplicaRoutingConfig {
+    /**
+     * The pool name set here is only a default; the properties are bound after this method returns.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Credentials default to the primary's. The pool connects read-only unless
+     * {@code books-api.replica.hikari.read-only} says otherwise, so a write that reaches it by mistake fails instead of
+     * diverging from the primary.
+     */
+    @Bean
+    @ConfigurationProperties("books-api.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${books-api.replica.url}") String url,
+            @Value("${books-api.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${books-api.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReadOnlyRoutingDataSource(replica, primary));
+        return dataSource;
+    }
+
+    /**
+     * A window of zero only pins the write requests themselves.
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${books-api.replica.read-your-writes:5s}") Duration window,
+            @Value("${books-api.replica.read-your-writes-clients:100000}") long maximumClients) {
+        return new ReadYourWritesFilter(window, maximumClients);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.books_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link RecordingDataSource} in front of the application's data source, below Hibernate and above the pool.
+ * With a replica configured there are two pools, each wrapped on its own; the routing proxy above them is not, or
+ * every statement would be recorded twice.
+ * <p>
+ * Recording proxies every connection, statement and result set, so it can be switched off with
+ * {@code books-api.sql-stats.enabled=false}; the per-request headers and the slow-statement log then go quiet as well.
+ */
+@Component
+@ConditionalOnProperty(name = "books-api.sql-stats.enabled", matchIfMissing = true)
+class SqlStatementRecorder implements BeanPostProcessor {
+    private final Duration slowThreshold;
+
+    SqlStatementRecorder(@Value("${books-api.sql-stats.slow-threshold:200ms}") Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+            return new RecordingDataSource(dataSource, slowThreshold);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.books_api.config;
+
+/**
+ * Statements, rows and database time of the HTTP request being handled on the current thread. Statements issued
+ * outside a request, such as by the write-behind flusher or the title index loader, are not attributed to any.
+ */
+public final class SqlStatementStats {
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private SqlStatementStats() {}
+
+    static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static void statement(long elapsedNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) return;
+        stats.statements++;
+        stats.nanos += elapsedNanos;
+    }
+
+    static void rows(long count) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) stats.rows += count;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * Rows read through result sets plus rows reported as changed by updates.
+     */
+    public long rows() {
+        return rows;
+    }
+
+    public long millis() {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.books_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Collects {@link SqlStatementStats} for each request and, when {@code books-api.sql-stats.headers} is on, reports
+ * them as {@code X-Sql-Count}, {@code X-Sql-Rows} and {@code X-Sql-Time-Ms}. Headers have to be set before the body is
+ * written, so a response with a body reports the statements issued up to that point; streamed exports, which query
+ * while writing, report none of theirs.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    public static final String COUNT_HEADER = "X-Sql-Count";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private final boolean headers;
+
+    SqlStatsFilter(@Value("${books-api.sql-stats.headers:false}") boolean headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            if (!headers) {
+                chain.doFilter(request, response);
+                return;
+            }
+
+            StatsResponse statsResponse = new StatsResponse(response, stats);
+            chain.doFilter(request, statsResponse);
+            if (!response.isCommitted()) statsResponse.writeHeaders();
+        } finally {
+            SqlStatementStats.stop();
+        }
+    }
+
+    private static class StatsResponse extends HttpServletResponseWrapper {
+        private final SqlStatementStats stats;
+        private boolean written;
+
+        StatsResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (written) return;
+            written = true;
+            setHeader(COUNT_HEADER, Integer.toString(stats.statements()));
+            setHeader(ROWS_HEADER, Long.toString(stats.rows()));
+            setHeader(TIME_HEADER, Long.toString(stats.millis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+    }
+}
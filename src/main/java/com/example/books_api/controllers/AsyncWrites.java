@@ -0,0 +1,41 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.services.AsyncWriteResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+/**
+ * Handling of {@code Prefer: respond-async} (RFC 7240) on PATCH requests.
+ */
+final class AsyncWrites {
+    static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private AsyncWrites() {}
+
+    static boolean requested(String prefer) {
+        if (prefer == null) return false;
+        for (String preference : prefer.split(",")) {
+            if (preference.split(";")[0].trim().equalsIgnoreCase(RESPOND_ASYNC)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Maps a queued write to 202 Accepted, or to 429 with a {@code Retry-After} hint when the queue is full. Empty when
+     * write-behind is off and the request should be served synchronously.
+     */
+    static <T> Optional<ResponseEntity<T>> response(AsyncWriteResult result) {
+        return switch (result) {
+            case ACCEPTED -> Optional.of(ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .build());
+            case REJECTED -> Optional.of(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .build());
+            case DISABLED -> Optional.empty();
+        };
+    }
+}
@@ -1,25 +1,42 @@
 package com.example.books_api.controllers;
 
+import com.example.books_api.config.BinaryFormatsConfig;
 import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.dto.AuthorStatsDto;
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.CursorPageDto;
+import com.example.books_api.domain.dto.DeleteResultDto;
+import com.example.books_api.domain.dto.PageDto;
 import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.mappers.Mapper;
+import com.example.books_api.repositories.AuthorRepository;
 import com.example.books_api.services.AuthorService;
-import org.springframework.data.domain.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
 public class AuthorController {
+    private static final int MAX_AGE_BOUNDARIES = 50;
+    private static final int MAX_TOP_AUTHORS = 100;
+
     private final AuthorService authorService;
     private final Mapper<AuthorEntity, AuthorDto> authorMapper;
+    private final ExportFormats exportFormats;
 
-    AuthorController(AuthorService authorService, Mapper<AuthorEntity, AuthorDto> authorMapper) {
+    AuthorController(AuthorService authorService, Mapper<AuthorEntity, AuthorDto> authorMapper,
+                     ExportFormats exportFormats) {
         this.authorService = authorService;
         this.authorMapper = authorMapper;
+        this.exportFormats = exportFormats;
     }
 
     @PostMapping(path = "/authors")
@@ -29,25 +46,115 @@ public class AuthorController {
         return new ResponseEntity<>(authorMapper.mapTo(savedAuthorEntity), HttpStatus.CREATED);
     }
 
+    @PostMapping(path = "/authors:batch")
+    public ResponseEntity<List<AuthorDto>> createAuthors(@RequestBody List<AuthorDto> authorDtos) {
+        List<AuthorEntity> authorEntities = authorDtos.stream().map(authorMapper::mapFrom).toList();
+        List<AuthorEntity> created = authorService.createAuthors(authorEntities);
+        return new ResponseEntity<>(created.stream().map(authorMapper::mapTo).toList(), HttpStatus.CREATED);
+    }
+
     @GetMapping(path = "/authors")
-    public Page<AuthorDto> listAuthors(Pageable pageable) {
-        Page<AuthorEntity> authorEntities = authorService.findAll(pageable);
-        return authorEntities.map(authorMapper::mapTo);
+    public PageDto<AuthorView> listAuthors(Pageable pageable) {
+        return PageDto.of(authorService.findAll(pageable));
+    }
+
+    /**
+     * Keyset variant of {@link #listAuthors(Pageable)}: pages are ordered by id and {@code after} is the opaque cursor
+     * from the previous page's {@code next} link (empty for the first page), so every page costs the same.
+     */
+    @GetMapping(path = "/authors", params = "after")
+    public ResponseEntity<CursorPageDto<AuthorDto>> listAuthorsAfter(
+            @RequestParam("after") String after,
+            @RequestParam(name = "size", defaultValue = "" + CursorCodec.DEFAULT_PAGE_SIZE) int size) {
+        long afterId;
+        try {
+            afterId = after.isEmpty() ? Long.MIN_VALUE : Long.parseLong(CursorCodec.decode(after));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<AuthorEntity> authorEntities = authorService.findAfter(afterId, pageSize + 1);
+        List<AuthorDto> authors = authorEntities.stream().limit(pageSize).map(authorMapper::mapTo).toList();
+        String next = authorEntities.size() > pageSize
+                ? CursorCodec.nextLink(authors.getLast().getId().toString())
+                : null;
+
+        return new ResponseEntity<>(new CursorPageDto<>(authors, next), HttpStatus.OK);
+    }
+
+    /**
+     * {@code buckets} lists the age boundaries in ascending order; n boundaries give n + 1 histogram buckets.
+     */
+    @GetMapping(path = "/authors/stats")
+    public ResponseEntity<AuthorStatsDto> getAuthorStats(
+            @RequestParam(name = "buckets", defaultValue = "18,30,45,60") List<Integer> buckets,
+            @RequestParam(name = "top", defaultValue = "10") int top) {
+        if (buckets.isEmpty() || buckets.size() > MAX_AGE_BOUNDARIES) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        for (int i = 1; i < buckets.size(); i++) {
+            if (buckets.get(i - 1) >= buckets.get(i)) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        AuthorStatsDto stats = authorService.stats(buckets, Math.clamp(top, 1, MAX_TOP_AUTHORS));
+        return new ResponseEntity<>(stats, HttpStatus.OK);
     }
 
+    @GetMapping(path = "/authors/export", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE, BinaryFormatsConfig.SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    })
+    public ResponseEntity<StreamingResponseBody> exportAuthors(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType mediaType = exportFormats.negotiate(accept);
+        ObjectMapper mapper = exportFormats.mapper(mediaType);
+        int flushEvery = AuthorRepository.STREAM_FETCH_SIZE;
+        StreamingResponseBody body = outputStream -> {
+            try (RowStreamWriter writer = new RowStreamWriter(mapper, outputStream, flushEvery)) {
+                authorService.streamAll(authorEntity -> writer.write(authorMapper.mapTo(authorEntity)));
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the version column alone, without loading the author. As for books, a queued
+     * update suppresses both the 304 and the ETag until it is written.
+     */
     @GetMapping(path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> getAuthor(@PathVariable("id") Long id) {
-        Optional<AuthorEntity> foundAuthor = authorService.findOne(id);
-        return foundAuthor.map(
-                authorEntity -> {
-                    AuthorDto author = authorMapper.mapTo(authorEntity);
-                    return new ResponseEntity<>(author, HttpStatus.OK);
-                }
-        ).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<AuthorView> getAuthor(
+            @PathVariable("id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean pending = authorService.hasPendingWrite(id);
+        if (ifNoneMatch != null && !pending) {
+            Optional<Long> version = authorService.findVersion(id);
+            if (version.isPresent() && ETags.notModified(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version.get())).build();
+            }
+        }
+
+        Optional<AuthorView> foundAuthor = authorService.findOne(id);
+        if (pending) return ResponseEntity.of(foundAuthor);
+        return foundAuthor.map(author -> ResponseEntity.ok().eTag(ETags.of(author.version())).body(author))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @PutMapping(path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> fullUpdateAuthor(@PathVariable("id") Long id, @RequestBody AuthorDto authorDto) {
+    public ResponseEntity<AuthorDto> fullUpdateAuthor(
+            @PathVariable("id") Long id,
+            @RequestBody AuthorDto authorDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            authorDto.setId(id);
+            Optional<Long> expectedVersion = ETags.expectedVersion(ifMatch, () -> authorService.findVersion(id));
+            return expectedVersion
+                    .flatMap(version -> authorService.saveAuthor(authorMapper.mapFrom(authorDto), version))
+                    .map(authorEntity -> ResponseEntity.ok()
+                            .eTag(ETags.of(expectedVersion.get() + 1))
+                            .body(authorMapper.mapTo(authorEntity)))
+                    .orElse(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+        }
+
         if (!authorService.isPresent(id)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -59,15 +166,34 @@ public class AuthorController {
     }
 
     @PatchMapping(path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> partialUpdateAuthor(@PathVariable("id") Long id,
-                                                         @RequestBody AuthorDto authorDto) {
-        if (!authorService.isPresent(id)) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<AuthorDto> partialUpdateAuthor(
+            @PathVariable("id") Long id,
+            @RequestBody AuthorDto authorDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = AsyncWrites.PREFER, required = false) String prefer) {
+        if (ifMatch == null && AsyncWrites.requested(prefer)) {
+            if (!authorService.isPresent(id)) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            Optional<ResponseEntity<AuthorDto>> queued =
+                    AsyncWrites.response(authorService.partialUpdateAuthorLater(id, authorMapper.mapFrom(authorDto)));
+            if (queued.isPresent()) return queued.get();
         }
 
-        AuthorEntity authorEntity = authorService.partialUpdateAuthor(id, authorMapper.mapFrom(authorDto));
+        if (ifMatch != null) {
+            Optional<Long> expectedVersion = ETags.expectedVersion(ifMatch, () -> authorService.findVersion(id));
+            return expectedVersion
+                    .flatMap(version -> authorService.partialUpdateAuthor(id, authorMapper.mapFrom(authorDto), version))
+                    .map(authorEntity -> ResponseEntity.ok()
+                            .eTag(ETags.of(authorEntity.getVersion()))
+                            .body(authorMapper.mapTo(authorEntity)))
+                    .orElse(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+        }
 
-        return new ResponseEntity<>(authorMapper.mapTo(authorEntity), HttpStatus.OK);
+        return authorService.partialUpdateAuthor(id, authorMapper.mapFrom(authorDto))
+                .map(authorEntity -> ResponseEntity.ok()
+                        .eTag(ETags.of(authorEntity.getVersion()))
+                        .body(authorMapper.mapTo(authorEntity)))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/authors/{id}")
@@ -75,4 +201,12 @@ public class AuthorController {
         authorService.delete(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    /**
+     * Deletes every author whose id is in the body, which a query string could not hold for cleanup-sized batches.
+     */
+    @PostMapping(path = "/authors:batchDelete")
+    public ResponseEntity<DeleteResultDto> deleteAuthors(@RequestBody List<Long> ids) {
+        return new ResponseEntity<>(new DeleteResultDto(authorService.deleteAll(ids)), HttpStatus.OK);
+    }
 }
@@ -1,64 +1,217 @@
 package com.example.books_api.controllers;
 
+import com.example.books_api.config.BinaryFormatsConfig;
+import com.example.books_api.domain.dto.BookBatchResultDto;
 import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.dto.BookView;
+import com.example.books_api.domain.dto.CursorPageDto;
+import com.example.books_api.domain.dto.DeleteResultDto;
+import com.example.books_api.domain.dto.PageDto;
+import com.example.books_api.domain.dto.SearchHitDto;
+import com.example.books_api.domain.dto.SuggestionDto;
 import com.example.books_api.domain.entities.BookEntity;
 import com.example.books_api.mappers.Mapper;
+import com.example.books_api.repositories.BookRepository;
 import com.example.books_api.services.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
 public class BookController {
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final BookService bookService;
     private final Mapper<BookEntity, BookDto> bookMapper;
+    private final ExportFormats exportFormats;
 
-    public BookController(BookService bookService, Mapper<BookEntity, BookDto> bookMapper) {
+    public BookController(BookService bookService, Mapper<BookEntity, BookDto> bookMapper,
+                          ExportFormats exportFormats) {
         this.bookService = bookService;
         this.bookMapper = bookMapper;
+        this.exportFormats = exportFormats;
     }
 
     @PutMapping(path = "/books/{isbn}")
-    public ResponseEntity<BookDto> createUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto) {
+    public ResponseEntity<BookDto> createUpdateBook(
+            @PathVariable("isbn") String isbn,
+            @RequestBody BookDto bookDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         BookEntity bookEntity = bookMapper.mapFrom(bookDto);
-        boolean bookExists = bookService.isPresent(isbn);
+        if (ifMatch != null) {
+            return ETags.expectedBookVersion(ifMatch, () -> bookService.findVersion(isbn))
+                    .flatMap(version -> bookService.saveBook(isbn, bookEntity, version))
+                    .map(savedBookEntity -> saved(HttpStatus.OK, savedBookEntity))
+                    .orElse(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+        }
+
         BookEntity savedBookEntity = bookService.saveBook(isbn, bookEntity);
+        return saved(savedBookEntity.getVersion() == 0 ? HttpStatus.CREATED : HttpStatus.OK, savedBookEntity);
+    }
 
-        if (bookExists) {
-            return new ResponseEntity<>(bookMapper.mapTo(bookEntity), HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(bookMapper.mapTo(savedBookEntity), HttpStatus.CREATED);
-        }
+    /**
+     * Leaves out the ETag when the save could not tell the author's version.
+     */
+    private ResponseEntity<BookDto> saved(HttpStatus status, BookEntity savedBookEntity) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        bookService.savedVersion(savedBookEntity).ifPresent(version -> response.eTag(ETags.of(version)));
+        return response.body(bookMapper.mapTo(savedBookEntity));
+    }
+
+    @PostMapping(path = "/books:batch")
+    public ResponseEntity<List<BookBatchResultDto>> createUpdateBooks(@RequestBody List<BookDto> bookDtos) {
+        List<BookEntity> bookEntities = bookDtos.stream().map(bookMapper::mapFrom).toList();
+        return new ResponseEntity<>(bookService.saveBooks(bookEntities), HttpStatus.OK);
     }
 
     @GetMapping(path = "/books")
-    public Page<BookDto> listBooks(Pageable pageable) {
-        Page<BookEntity> bookEntities = bookService.findAll(pageable);
-        return bookEntities.map(bookMapper::mapTo);
+    public PageDto<BookView> listBooks(Pageable pageable) {
+        return PageDto.of(bookService.findAll(pageable));
     }
 
+    /**
+     * Keyset variant of {@link #listBooks(Pageable)}: pages are ordered by ISBN and {@code after} is the opaque cursor
+     * from the previous page's {@code next} link (empty for the first page), so every page costs the same.
+     */
+    @GetMapping(path = "/books", params = "after")
+    public ResponseEntity<CursorPageDto<BookDto>> listBooksAfter(
+            @RequestParam("after") String after,
+            @RequestParam(name = "size", defaultValue = "" + CursorCodec.DEFAULT_PAGE_SIZE) int size) {
+        String afterIsbn;
+        try {
+            afterIsbn = after.isEmpty() ? "" : CursorCodec.decode(after);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<BookEntity> bookEntities = bookService.findAfter(afterIsbn, pageSize + 1);
+        List<BookDto> books = bookEntities.stream().limit(pageSize).map(bookMapper::mapTo).toList();
+        String next = bookEntities.size() > pageSize ? CursorCodec.nextLink(books.getLast().getIsbn()) : null;
+
+        return new ResponseEntity<>(new CursorPageDto<>(books, next), HttpStatus.OK);
+    }
+
+    /**
+     * Keyset-paged books of one author, in isbn order. {@code count=true} adds the author's total number of books,
+     * computed by a separate count query.
+     */
+    @GetMapping(path = "/authors/{id}/books")
+    public ResponseEntity<CursorPageDto<BookView>> listAuthorBooks(
+            @PathVariable("id") Long authorId,
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(name = "size", defaultValue = "" + CursorCodec.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(name = "count", defaultValue = "false") boolean count) {
+        String afterIsbn;
+        try {
+            afterIsbn = after.isEmpty() ? "" : CursorCodec.decode(after);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        int pageSize = CursorCodec.pageSize(size);
+        Optional<List<BookView>> found = bookService.findByAuthorAfter(authorId, afterIsbn, pageSize + 1);
+        if (found.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        List<BookView> bookViews = found.get();
+        List<BookView> books = bookViews.stream().limit(pageSize).toList();
+        String next = bookViews.size() > pageSize ? CursorCodec.nextLink(books.getLast().isbn()) : null;
+        Long total = count ? bookService.countByAuthor(authorId) : null;
+
+        return new ResponseEntity<>(new CursorPageDto<>(books, next, total), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/books/search")
+    public Page<SearchHitDto> searchBooks(@RequestParam("q") String query, Pageable pageable) {
+        return bookService.search(query, pageable);
+    }
+
+    @GetMapping(path = "/books/suggest")
+    public List<SuggestionDto> suggestBooks(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_SUGGESTIONS) int limit) {
+        return bookService.suggest(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+
+    @GetMapping(path = "/books/export", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE, BinaryFormatsConfig.SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE
+    })
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType mediaType = exportFormats.negotiate(accept);
+        ObjectMapper mapper = exportFormats.mapper(mediaType);
+        StreamingResponseBody body = outputStream -> {
+            try (RowStreamWriter writer = new RowStreamWriter(mapper, outputStream, BookRepository.STREAM_FETCH_SIZE)) {
+                bookService.streamAll(bookEntity -> writer.write(bookMapper.mapTo(bookEntity)));
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the book's and its author's version columns, without loading the book. While
+     * an update to the book is queued, the body shows it but the stored version does not, so there is neither a 304 nor
+     * an ETag.
+     */
     @GetMapping(path = "/books/{isbn}")
-    public ResponseEntity<BookDto> getBook(@PathVariable("isbn") String isbn) {
-        Optional<BookEntity> foundBook = bookService.findOne(isbn);
-        return foundBook.map(bookEntity -> {
-            BookDto book = bookMapper.mapTo(bookEntity);
-            return new ResponseEntity<>(book, HttpStatus.OK);
-        }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<BookView> getBook(
+            @PathVariable("isbn") String isbn,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean pending = bookService.hasPendingWrite(isbn);
+        if (ifNoneMatch != null && !pending) {
+            Optional<BookVersion> version = bookService.findVersion(isbn);
+            if (version.isPresent() && ETags.notModified(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version.get())).build();
+            }
+        }
+
+        Optional<BookView> foundBook = bookService.findOne(isbn);
+        if (pending) return ResponseEntity.of(foundBook);
+        return foundBook.map(book -> ResponseEntity.ok().eTag(ETags.of(book.bookVersion())).body(book))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @PatchMapping(path = "/books/{isbn}")
-    public ResponseEntity<BookDto> partialUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto) {
-        if (!bookService.isPresent(isbn)) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<BookDto> partialUpdateBook(
+            @PathVariable("isbn") String isbn,
+            @RequestBody BookDto bookDto,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = AsyncWrites.PREFER, required = false) String prefer) {
+        if (ifMatch == null && AsyncWrites.requested(prefer)) {
+            if (!bookService.isPresent(isbn)) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            Optional<ResponseEntity<BookDto>> queued =
+                    AsyncWrites.response(bookService.partialUpdateLater(isbn, bookMapper.mapFrom(bookDto)));
+            if (queued.isPresent()) return queued.get();
         }
 
-        BookEntity bookEntity = bookService.partialUpdate(isbn, bookMapper.mapFrom(bookDto));
+        if (ifMatch != null) {
+            return ETags.expectedBookVersion(ifMatch, () -> bookService.findVersion(isbn))
+                    .flatMap(version -> bookService.partialUpdate(isbn, bookMapper.mapFrom(bookDto), version))
+                    .map(bookEntity -> ResponseEntity.ok()
+                            .eTag(ETags.of(BookVersion.of(bookEntity)))
+                            .body(bookMapper.mapTo(bookEntity)))
+                    .orElse(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+        }
 
-        return new ResponseEntity<>(bookMapper.mapTo(bookEntity), HttpStatus.OK);
+        return bookService.partialUpdate(isbn, bookMapper.mapFrom(bookDto))
+                .map(bookEntity -> ResponseEntity.ok()
+                        .eTag(ETags.of(BookVersion.of(bookEntity)))
+                        .body(bookMapper.mapTo(bookEntity)))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/books/{isbn}")
@@ -67,4 +220,12 @@ public class BookController {
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    /**
+     * {@code DELETE /books?isbn=a,b,c}; the parameter may also be repeated.
+     */
+    @DeleteMapping(path = "/books", params = "isbn")
+    public ResponseEntity<DeleteResultDto> deleteBooks(@RequestParam("isbn") List<String> isbns) {
+        return new ResponseEntity<>(new DeleteResultDto(bookService.deleteAll(isbns)), HttpStatus.OK);
+    }
 }
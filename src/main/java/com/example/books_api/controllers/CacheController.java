@@ -0,0 +1,42 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.domain.dto.CacheStatsDto;
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+public class CacheController {
+    private final Cache<String, Optional<BookView>> bookCache;
+    private final Cache<Long, Optional<AuthorView>> authorCache;
+
+    CacheController(Cache<String, Optional<BookView>> bookCache, Cache<Long, Optional<AuthorView>> authorCache) {
+        this.bookCache = bookCache;
+        this.authorCache = authorCache;
+    }
+
+    @GetMapping(path = "/cache/stats")
+    public Map<String, CacheStatsDto> getCacheStats() {
+        return Map.of(
+                "books", toDto(bookCache),
+                "authors", toDto(authorCache)
+        );
+    }
+
+    private static CacheStatsDto toDto(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate()
+        );
+    }
+}
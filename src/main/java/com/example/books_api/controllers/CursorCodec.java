@@ -0,0 +1,37 @@
+package com.example.books_api.controllers;
+
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Turns the sort key of the last row on a page into the opaque {@code after} token of the next one, and back.
+ */
+final class CursorCodec {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private CursorCodec() {}
+
+    static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(String)}
+     */
+    static String decode(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+
+    static int pageSize(int requested) {
+        return Math.clamp(requested, 1, MAX_PAGE_SIZE);
+    }
+
+    static String nextLink(String lastKey) {
+        return ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", encode(lastKey))
+                .toUriString();
+    }
+}
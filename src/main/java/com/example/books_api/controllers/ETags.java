@@ -0,0 +1,78 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.domain.dto.BookVersion;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags derived from the entity version column. A book's tag also carries its author's version, as
+ * {@code "<book>-<author>"}, because the author is rendered with the book.
+ */
+final class ETags {
+    private ETags() {}
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(BookVersion version) {
+        return version.author() == null ? of(version.book()) : "\"" + version.book() + "-" + version.author() + "\"";
+    }
+
+    static boolean notModified(String ifNoneMatch, long version) {
+        return matchesAny(ifNoneMatch, of(version));
+    }
+
+    static boolean notModified(String ifNoneMatch, BookVersion version) {
+        return matchesAny(ifNoneMatch, of(version));
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} with the weak comparison the header calls for.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String tag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) trimmed = trimmed.substring(2);
+            if (trimmed.equals("*") || trimmed.equals(tag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resolves the version an {@code If-Match} header requires. {@code *} means whatever version currently exists.
+     * Only a single strong tag is supported, so weak tags and lists resolve to empty and fail the precondition.
+     */
+    static Optional<Long> expectedVersion(String ifMatch, Supplier<Optional<Long>> currentVersion) {
+        if (ifMatch.trim().equals("*")) return currentVersion.get();
+        return opaqueTag(ifMatch).flatMap(ETags::parseVersion);
+    }
+
+    /**
+     * Book counterpart of {@link #expectedVersion}, which also accepts the {@code "<book>-<author>"} form.
+     */
+    static Optional<BookVersion> expectedBookVersion(String ifMatch, Supplier<Optional<BookVersion>> currentVersion) {
+        if (ifMatch.trim().equals("*")) return currentVersion.get();
+        return opaqueTag(ifMatch).flatMap(tag -> {
+            int separator = tag.indexOf('-');
+            if (separator < 0) return parseVersion(tag).map(book -> new BookVersion(book, null));
+            return parseVersion(tag.substring(0, separator)).flatMap(book ->
+                    parseVersion(tag.substring(separator + 1)).map(author -> new BookVersion(book, author)));
+        });
+    }
+
+    private static Optional<String> opaqueTag(String ifMatch) {
+        String trimmed = ifMatch.trim();
+        if (trimmed.length() < 3 || !trimmed.startsWith("\"") || !trimmed.endsWith("\"")) return Optional.empty();
+        return Optional.of(trimmed.substring(1, trimmed.length() - 1));
+    }
+
+    private static Optional<Long> parseVersion(String version) {
+        try {
+            return Optional.of(Long.parseLong(version));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
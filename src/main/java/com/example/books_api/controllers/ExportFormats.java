@@ -0,0 +1,55 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.config.BinaryFormatsConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Picks the format of a streamed export, which bypasses the message converters: NDJSON unless the {@code Accept}
+ * header asks for Smile or CBOR first.
+ * <p>
+ * CBOR exports leave out the stringref extension. Each row is a document of its own, and stringref namespaces do not
+ * span documents, so rows after the first would refer to strings a reader never saw.
+ */
+@Component
+class ExportFormats {
+    private static final MediaType SMILE = MediaType.parseMediaType(BinaryFormatsConfig.SMILE_VALUE);
+    private static final List<MediaType> SUPPORTED =
+            List.of(MediaType.APPLICATION_NDJSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper cborMapper;
+
+    ExportFormats(ObjectMapper objectMapper, MappingJackson2SmileHttpMessageConverter smileConverter,
+                  MappingJackson2CborHttpMessageConverter cborConverter) {
+        this.jsonMapper = objectMapper;
+        this.smileMapper = smileConverter.getObjectMapper();
+        this.cborMapper = cborConverter.getObjectMapper().copyWith(new CBORFactory());
+    }
+
+    /**
+     * The first supported format the header allows, in the order it lists them.
+     */
+    MediaType negotiate(String accept) {
+        if (accept == null) return MediaType.APPLICATION_NDJSON;
+        for (MediaType acceptable : MediaType.parseMediaTypes(accept)) {
+            for (MediaType supported : SUPPORTED) {
+                if (acceptable.includes(supported)) return supported;
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    ObjectMapper mapper(MediaType mediaType) {
+        if (SMILE.equals(mediaType)) return smileMapper;
+        if (MediaType.APPLICATION_CBOR.equals(mediaType)) return cborMapper;
+        return jsonMapper;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.books_api.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes one document per row to a response body, flushing every {@code flushEvery} rows so that clients start
+ * receiving data while the query is still running. With a JSON mapper this is NDJSON, one document per line; binary
+ * formats such as Smile and CBOR are self-delimiting, so their documents are simply concatenated.
+ */
+final class RowStreamWriter implements Closeable {
+    private final ObjectWriter objectWriter;
+    private final JsonGenerator generator;
+    private final boolean newlines;
+    private final int flushEvery;
+    private int rows;
+
+    RowStreamWriter(ObjectMapper objectMapper, OutputStream outputStream, int flushEvery) throws IOException {
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(outputStream);
+        this.newlines = !objectMapper.getFactory().canHandleBinaryNatively();
+        // Binary generators have no root value separator to clear, and throw if asked to.
+        if (newlines) this.generator.setRootValueSeparator(null);
+        this.flushEvery = flushEvery;
+    }
+
+    void write(Object value) {
+        try {
+            objectWriter.writeValue(generator, value);
+            if (newlines) generator.writeRaw('\n');
+            if (++rows % flushEvery == 0) generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
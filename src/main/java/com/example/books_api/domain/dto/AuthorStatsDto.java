@@ -0,0 +1,59 @@
+package com.example.books_api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Aggregates over all authors. Histogram buckets are half-open, {@code [from, to)}; the first has no {@code from} and
+ * the last no {@code to}, and authors without an age are left out. {@code booksPerAuthor} is the distribution of book
+ * counts, i.e. how many authors have written {@code books} books.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AuthorStatsDto {
+    private List<AgeBucket> ageHistogram;
+
+    private List<BookCount> booksPerAuthor;
+
+    private List<TopAuthor> topAuthors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class AgeBucket {
+        private Integer from;
+
+        private Integer to;
+
+        private long authors;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class BookCount {
+        private long books;
+
+        private long authors;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class TopAuthor {
+        private Long id;
+
+        private String name;
+
+        private long books;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.books_api.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read-only author as selected straight from the database; serializes exactly like {@link AuthorDto}. The version is
+ * kept for the ETag but not rendered.
+ */
+public record AuthorView(Long id, String name, Integer age, @JsonIgnore long version) {
+}
@@ -0,0 +1,24 @@
+package com.example.books_api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookBatchResultDto {
+    private String isbn;
+
+    private Status status;
+
+    private String error;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.books_api.domain.dto;
+
+import com.example.books_api.domain.entities.BookEntity;
+
+/**
+ * What a book's entity tag is made of: its own version and, since the author is rendered with it, the author's.
+ * {@code author} is null when the book has no author.
+ */
+public record BookVersion(long book, Long author) {
+    public static BookVersion of(BookEntity bookEntity) {
+        return new BookVersion(bookEntity.getVersion(),
+                bookEntity.getAuthorEntity() == null ? null : bookEntity.getAuthorEntity().getVersion());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.books_api.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read-only book with its author, the projection counterpart of {@link BookDto}.
+ */
+public record BookView(String isbn, String title, AuthorView author, @JsonIgnore long version) {
+    /**
+     * Flat form for JPQL constructor expressions, which cannot nest; the author columns are all null when the book has
+     * no author.
+     */
+    public BookView(String isbn, String title, long version,
+                    Long authorId, String authorName, Integer authorAge, Long authorVersion) {
+        this(isbn, title, authorId == null ? null : new AuthorView(authorId, authorName, authorAge, authorVersion),
+                version);
+    }
+
+    /**
+     * Author-less form, for queries that fetch the author separately.
+     */
+    public BookView(String isbn, String title, long version) {
+        this(isbn, title, null, version);
+    }
+
+    public BookView withAuthor(AuthorView author) {
+        return new BookView(isbn, title, author, version);
+    }
+
+    public BookVersion bookVersion() {
+        return new BookVersion(version, author == null ? null : author.version());
+    }
+}
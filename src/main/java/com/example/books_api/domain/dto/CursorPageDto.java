@@ -0,0 +1,30 @@
+package com.example.books_api.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing. {@code next} links to the following page and is {@code null} on the last one. There
+ * is no total count unless an endpoint offers it on request, since computing it costs a scan on every call.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    private List<T> content;
+
+    private String next;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long count;
+
+    public CursorPageDto(List<T> content, String next) {
+        this(content, next, null);
+    }
+}
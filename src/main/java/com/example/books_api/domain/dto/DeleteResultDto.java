@@ -0,0 +1,17 @@
+package com.example.books_api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a batch delete: how many of the requested keys matched a row. Keys that did not are not an error.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeleteResultDto {
+    private int deleted;
+}
@@ -0,0 +1,83 @@
+package com.example.books_api.domain.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One page of an offset listing, always rendered as
+ * <pre>
+ * {"content": [...], "page": {"size": 20, "number": 0, "totalElements": 42, "totalPages": 3}}
+ * </pre>
+ * unlike {@code PageImpl}, whose bean serialization follows Spring Data's internals. {@code number} is zero-based.
+ */
+@JsonSerialize(using = PageDto.Serializer.class)
+public record PageDto<T>(List<T> content, int size, int number, long totalElements, int totalPages) {
+    public static <T> PageDto<T> of(Page<T> page) {
+        return new PageDto<>(page.getContent(), page.getSize(), page.getNumber(), page.getTotalElements(),
+                page.getTotalPages());
+    }
+
+    /**
+     * Writes the envelope straight to the generator with pre-encoded field names, and looks the row serializer up
+     * once per page instead of once per row.
+     */
+    static final class Serializer extends StdSerializer<PageDto<?>> {
+        private static final SerializedString CONTENT = new SerializedString("content");
+        private static final SerializedString PAGE = new SerializedString("page");
+        private static final SerializedString SIZE = new SerializedString("size");
+        private static final SerializedString NUMBER = new SerializedString("number");
+        private static final SerializedString TOTAL_ELEMENTS = new SerializedString("totalElements");
+        private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+
+        @SuppressWarnings("unchecked")
+        Serializer() {
+            super((Class<PageDto<?>>) (Class<?>) PageDto.class);
+        }
+
+        @Override
+        public void serialize(PageDto<?> page, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(page);
+
+            List<?> content = page.content();
+            generator.writeFieldName(CONTENT);
+            generator.writeStartArray(content, content.size());
+            Class<?> rowType = null;
+            JsonSerializer<Object> rowSerializer = null;
+            for (Object row : content) {
+                if (row == null) {
+                    generator.writeNull();
+                    continue;
+                }
+                if (row.getClass() != rowType) {
+                    rowType = row.getClass();
+                    rowSerializer = provider.findValueSerializer(rowType);
+                }
+                rowSerializer.serialize(row, generator, provider);
+            }
+            generator.writeEndArray();
+
+            generator.writeFieldName(PAGE);
+            generator.writeStartObject();
+            generator.writeFieldName(SIZE);
+            generator.writeNumber(page.size());
+            generator.writeFieldName(NUMBER);
+            generator.writeNumber(page.number());
+            generator.writeFieldName(TOTAL_ELEMENTS);
+            generator.writeNumber(page.totalElements());
+            generator.writeFieldName(TOTAL_PAGES);
+            generator.writeNumber(page.totalPages());
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        }
+    }
+}
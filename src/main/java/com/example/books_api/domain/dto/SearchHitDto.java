@@ -0,0 +1,18 @@
+package com.example.books_api.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SearchHitDto {
+    private String isbn;
+
+    private String title;
+
+    private double score;
+}
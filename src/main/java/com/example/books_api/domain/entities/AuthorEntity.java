@@ -4,20 +4,38 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "authors")
+@Table(name = "authors", indexes = @Index(name = "authors_age_idx", columnList = "age"))
 public class AuthorEntity {
+    /**
+     * Ids reserved by each {@code nextval}. The sequence is created with this increment, so changing it on an existing
+     * database also means altering the sequence. Kept equal to the JDBC batch size, so a full insert batch costs a
+     * single sequence call.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_id_seq")
+    @SequenceGenerator(name = "author_id_seq", sequenceName = "author_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
 
     private Integer age;
+
+    /**
+     * Entity-tag version, maintained the same way as {@link BookEntity}'s.
+     */
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private long version;
 }
@@ -4,14 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = @Index(name = "books_author_id_isbn_idx", columnList = "author_id, isbn"))
 public class BookEntity {
     @Id
     private String isbn;
@@ -21,4 +23,13 @@ public class BookEntity {
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "author_id")
     private AuthorEntity authorEntity;
+
+    /**
+     * Bumped by the services on every write and exposed as the ETag. It is not a JPA {@code @Version}: writes that go
+     * through {@code merge} never touch it, and conditional writes compare it in their own UPDATE statement.
+     */
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private long version;
 }
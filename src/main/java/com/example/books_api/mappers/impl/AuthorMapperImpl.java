@@ -3,24 +3,25 @@ package com.example.books_api.mappers.impl;
 import com.example.books_api.domain.dto.AuthorDto;
 import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.mappers.Mapper;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AuthorMapperImpl implements Mapper<AuthorEntity, AuthorDto> {
-    ModelMapper modelMapper;
-
-    AuthorMapperImpl(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
-
     @Override
     public AuthorDto mapTo(AuthorEntity authorEntity) {
-        return modelMapper.map(authorEntity, AuthorDto.class);
+        if (authorEntity == null) return null;
+
+        return new AuthorDto(authorEntity.getId(), authorEntity.getName(), authorEntity.getAge());
     }
 
     @Override
     public AuthorEntity mapFrom(AuthorDto authorDto) {
-        return modelMapper.map(authorDto, AuthorEntity.class);
+        if (authorDto == null) return null;
+
+        AuthorEntity authorEntity = new AuthorEntity();
+        authorEntity.setId(authorDto.getId());
+        authorEntity.setName(authorDto.getName());
+        authorEntity.setAge(authorDto.getAge());
+        return authorEntity;
     }
 }
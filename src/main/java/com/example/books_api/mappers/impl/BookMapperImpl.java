@@ -1,26 +1,35 @@
 package com.example.books_api.mappers.impl;
 
+import com.example.books_api.domain.dto.AuthorDto;
 import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.domain.entities.BookEntity;
 import com.example.books_api.mappers.Mapper;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class BookMapperImpl implements Mapper<BookEntity, BookDto> {
-    private final ModelMapper modelMapper;
+    private final Mapper<AuthorEntity, AuthorDto> authorMapper;
 
-    BookMapperImpl(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
+    BookMapperImpl(Mapper<AuthorEntity, AuthorDto> authorMapper) {
+        this.authorMapper = authorMapper;
     }
 
     @Override
     public BookDto mapTo(BookEntity bookEntity) {
-        return modelMapper.map(bookEntity, BookDto.class);
+        if (bookEntity == null) return null;
+
+        return new BookDto(bookEntity.getIsbn(), bookEntity.getTitle(), authorMapper.mapTo(bookEntity.getAuthorEntity()));
     }
 
     @Override
     public BookEntity mapFrom(BookDto bookDto) {
-        return modelMapper.map(bookDto, BookEntity.class);
+        if (bookDto == null) return null;
+
+        BookEntity bookEntity = new BookEntity();
+        bookEntity.setIsbn(bookDto.getIsbn());
+        bookEntity.setTitle(bookDto.getTitle());
+        bookEntity.setAuthorEntity(authorMapper.mapFrom(bookDto.getAuthor()));
+        return bookEntity;
     }
 }
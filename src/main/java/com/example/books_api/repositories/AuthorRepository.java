@@ -1,12 +1,78 @@
 package com.example.books_api.repositories;
 
+import com.example.books_api.domain.dto.AuthorView;
 import com.example.books_api.domain.entities.AuthorEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuthorRepository extends CrudRepository<AuthorEntity, Long>,
-        PagingAndSortingRepository<AuthorEntity, Long> {
+        PagingAndSortingRepository<AuthorEntity, Long>, AuthorWriteRepository, AuthorStatsRepository {
+    int STREAM_FETCH_SIZE = 500;
+
+    int DELETE_CHUNK_SIZE = BookRepository.DELETE_CHUNK_SIZE;
+
+    String SELECT_VIEW = "select new com.example.books_api.domain.dto.AuthorView(a.id, a.name, a.age, a.version) "
+            + "from AuthorEntity a";
+
+    /**
+     * In id order; without an explicit order the result would follow whichever index the database picks.
+     */
+    @Query("select a from AuthorEntity a where a.age < :age order by a.id")
     Iterable<AuthorEntity> ageLessThan(int age);
+
+    @Query("select a from AuthorEntity a")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AuthorEntity> streamAll();
+
+    List<AuthorEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query(value = SELECT_VIEW, countQuery = "select count(a) from AuthorEntity a")
+    Page<AuthorView> findAllViews(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where a.id = :id")
+    Optional<AuthorView> findViewById(Long id);
+
+    @Query("select a.version from AuthorEntity a where a.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Modifying
+    @Query(value = "update authors set version = version + 1 where id = :id", nativeQuery = true)
+    int incrementVersion(Long id);
+
+    @Modifying
+    @Query(value = "update authors set version = version + 1 where id = :id and version = :version",
+            nativeQuery = true)
+    int incrementVersion(Long id, long version);
+
+    @Modifying
+    @Query(value = "update authors set version = version + 1 where id in (:ids)", nativeQuery = true)
+    int incrementVersions(Collection<Long> ids);
+
+    /**
+     * Deletes without loading the authors first. At most {@link #DELETE_CHUNK_SIZE} ids per call; an author that still
+     * has books fails the whole statement on the foreign key.
+     */
+    @Modifying
+    @Query(value = "delete from authors where id in (:ids)", nativeQuery = true)
+    int deleteByIds(Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.example.books_api.repositories;
+
+import com.example.books_api.domain.dto.AuthorStatsDto;
+
+import java.util.List;
+
+public interface AuthorStatsRepository {
+    /**
+     * Computes the age histogram for the given ascending bucket boundaries, the books-per-author distribution and the
+     * {@code top} most prolific authors, all in one query.
+     */
+    AuthorStatsDto stats(List<Integer> ageBoundaries, int top);
+}
@@ -0,0 +1,28 @@
+package com.example.books_api.repositories;
+
+import com.example.books_api.domain.entities.AuthorEntity;
+
+import java.util.Optional;
+
+/**
+ * In-place author updates, and the references a book can be linked to without loading its author.
+ */
+public interface AuthorWriteRepository {
+    /**
+     * Author counterpart of {@link BookWriteRepository#update}: writes the non-null name and age in one UPDATE.
+     */
+    Optional<AuthorEntity> update(Long id, AuthorEntity changes, Long expectedVersion);
+
+    /**
+     * Overwrites the name and age, nulls included, and bumps the version in one statement. Returns the new version, or
+     * empty when there is no such author.
+     */
+    Optional<Long> overwrite(Long id, String name, Integer age);
+
+    /**
+     * An uninitialized proxy for the author, for linking a book to it without loading the row.
+     */
+    AuthorEntity getReference(Long id);
+
+    void flushAndClear();
+}
@@ -1,11 +1,137 @@
 package com.example.books_api.repositories;
 
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.dto.BookView;
 import com.example.books_api.domain.entities.BookEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends CrudRepository<BookEntity, String>,
-        PagingAndSortingRepository<BookEntity, String> {
+        PagingAndSortingRepository<BookEntity, String>, BookWriteRepository {
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Keys bound into one {@code IN} list by the batch deletes, far below PostgreSQL's 32,767 bind parameters and
+     * within the 1,000-element lists that some other databases cap.
+     */
+    int DELETE_CHUNK_SIZE = 1_000;
+
+    String SELECT_VIEW = "select new com.example.books_api.domain.dto.BookView("
+            + "b.isbn, b.title, b.version, a.id, a.name, a.age, a.version) "
+            + "from BookEntity b left join b.authorEntity a";
+
+    @Query("select b from BookEntity b left join fetch b.authorEntity")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BookEntity> streamAll();
+
+    /**
+     * Pages through the books with their authors in a single query, without hydrating entities. The count query stays
+     * join-free.
+     */
+    @Query(value = SELECT_VIEW, countQuery = "select count(b) from BookEntity b")
+    Page<BookView> findAllViews(Pageable pageable);
+
+    /**
+     * Read-only, so that a cache load outside any transaction still goes to the replica when there is one.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " where b.isbn = :isbn")
+    Optional<BookView> findViewByIsbn(String isbn);
+
+    @EntityGraph(attributePaths = "authorEntity")
+    List<BookEntity> findByIsbnGreaterThanOrderByIsbnAsc(String isbn, Limit limit);
+
+    /**
+     * Compares the foreign key column directly, so neither the author nor a join is involved, and the scan follows the
+     * {@code (author_id, isbn)} index in order.
+     */
+    @Query("select new com.example.books_api.domain.dto.BookView(b.isbn, b.title, b.version) from BookEntity b "
+            + "where b.authorEntity.id = :authorId and b.isbn > :after order by b.isbn")
+    List<BookView> findViewsByAuthorAfter(Long authorId, String after, Limit limit);
+
+    long countByAuthorEntityId(Long authorId);
+
+    /**
+     * Loads the books together with their authors. {@code findAllById} would load each book's eager author with a
+     * SELECT of its own.
+     */
+    @Query("select b from BookEntity b left join fetch b.authorEntity where b.isbn in :isbns")
+    List<BookEntity> findAllWithAuthorsByIsbnIn(Collection<String> isbns);
+
+    @Query("select b.isbn from BookEntity b where b.isbn in :isbns")
+    List<String> findExistingIsbns(Collection<String> isbns);
+
+    @Query("select new com.example.books_api.domain.dto.BookVersion(b.version, a.version) "
+            + "from BookEntity b left join b.authorEntity a where b.isbn = :isbn")
+    Optional<BookVersion> findVersionByIsbn(String isbn);
+
+    @Modifying
+    @Query(value = "update books set version = version + 1 where isbn = :isbn", nativeQuery = true)
+    int incrementVersion(String isbn);
+
+    /**
+     * Bumps the version only if the book has no author and is still at {@code version}.
+     */
+    @Modifying
+    @Query(value = "update books set version = version + 1 "
+            + "where isbn = :isbn and version = :version and author_id is null", nativeQuery = true)
+    int incrementVersion(String isbn, long version);
+
+    /**
+     * Bumps the version only if the book and its author are still at the given versions, checked in the same
+     * statement.
+     */
+    @Modifying
+    @Query(value = "update books set version = version + 1 where isbn = :isbn and version = :version "
+            + "and exists (select 1 from authors a where a.id = books.author_id and a.version = :authorVersion)",
+            nativeQuery = true)
+    int incrementVersion(String isbn, long version, long authorVersion);
+
+    /**
+     * Locks the book if it has no author and is still at {@code version}, for a conditional write that has to change
+     * another row before the book's own UPDATE.
+     */
+    @Query(value = "select isbn from books where isbn = :isbn and version = :version and author_id is null "
+            + "for update", nativeQuery = true)
+    Optional<String> lockIfAt(String isbn, long version);
+
+    /**
+     * Locks the book if it and its author are still at the given versions.
+     */
+    @Query(value = "select isbn from books where isbn = :isbn and version = :version "
+            + "and exists (select 1 from authors a where a.id = books.author_id and a.version = :authorVersion) "
+            + "for update", nativeQuery = true)
+    Optional<String> lockIfAt(String isbn, long version, long authorVersion);
+
+    @Modifying
+    @Query(value = "update books set version = version + 1 where isbn in (:isbns)", nativeQuery = true)
+    int incrementVersions(Collection<String> isbns);
+
+    /**
+     * Deletes without loading the books first, so nothing cascades to their authors. At most
+     * {@link #DELETE_CHUNK_SIZE} isbns per call.
+     */
+    @Modifying
+    @Query(value = "delete from books where isbn in (:isbns)", nativeQuery = true)
+    int deleteByIsbns(Collection<String> isbns);
 }
@@ -0,0 +1,32 @@
+package com.example.books_api.repositories;
+
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.entities.BookEntity;
+
+import java.util.Optional;
+
+/**
+ * Book writes that {@code CrudRepository} cannot express: single-statement upserts and updates, and the persist and
+ * flush calls that batched writes use.
+ */
+public interface BookWriteRepository {
+    void persist(BookEntity bookEntity);
+
+    /**
+     * Inserts the book, or overwrites the title and author of an existing one and bumps its version, in a single
+     * statement: {@code INSERT ... ON CONFLICT} on PostgreSQL and {@code MERGE} elsewhere. Returns the row's version
+     * afterwards, which is {@code 0} only if it was inserted.
+     */
+    long upsert(BookEntity bookEntity);
+
+    /**
+     * Writes the non-null title and author id of {@code changes} with one UPDATE that also bumps the version, guarded
+     * by {@code expectedVersion}, the book's and its current author's, unless it is null. Returns the updated book with
+     * its author, detached, or empty when no row matched.
+     */
+    Optional<BookEntity> update(String isbn, BookEntity changes, BookVersion expectedVersion);
+
+    void flush();
+
+    void flushAndClear();
+}
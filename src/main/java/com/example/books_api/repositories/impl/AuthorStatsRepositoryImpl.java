@@ -0,0 +1,76 @@
+package com.example.books_api.repositories.impl;
+
+import com.example.books_api.domain.dto.AuthorStatsDto;
+import com.example.books_api.repositories.AuthorStatsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The three aggregates are separate grouped selects glued together with {@code UNION ALL}, each row tagged with the
+ * aggregate it belongs to, so they share one round trip. Only the reshaping into the DTO happens here.
+ */
+public class AuthorStatsRepositoryImpl implements AuthorStatsRepository {
+    private static final String STATS = """
+            select 'age' as kind, cast(bucket as bigint) as k, count(*) as v, cast(null as varchar(255)) as name
+            from (select %s as bucket from authors where age is not null) ages
+            group by bucket
+            union all
+            select 'books', books, count(*), null
+            from (select count(b.isbn) as books
+                  from authors a left join books b on b.author_id = a.id
+                  group by a.id) per_author
+            group by books
+            union all
+            select 'top', id, books, name
+            from (select a.id, a.name, count(*) as books
+                  from authors a join books b on b.author_id = a.id
+                  group by a.id, a.name
+                  order by books desc, a.id
+                  limit :top) top_authors""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public AuthorStatsDto stats(List<Integer> ageBoundaries, int top) {
+        StringBuilder bucket = new StringBuilder("case");
+        for (int i = 0; i < ageBoundaries.size(); i++) {
+            bucket.append(" when age < :b").append(i).append(" then ").append(i);
+        }
+        bucket.append(" else ").append(ageBoundaries.size()).append(" end");
+
+        Query query = entityManager.createNativeQuery(STATS.formatted(bucket)).setParameter("top", top);
+        for (int i = 0; i < ageBoundaries.size(); i++) query.setParameter("b" + i, ageBoundaries.get(i));
+
+        long[] ages = new long[ageBoundaries.size() + 1];
+        List<AuthorStatsDto.BookCount> booksPerAuthor = new ArrayList<>();
+        List<AuthorStatsDto.TopAuthor> topAuthors = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            long key = ((Number) row[1]).longValue();
+            long value = ((Number) row[2]).longValue();
+            switch ((String) row[0]) {
+                case "age" -> ages[(int) key] = value;
+                case "books" -> booksPerAuthor.add(new AuthorStatsDto.BookCount(key, value));
+                case "top" -> topAuthors.add(new AuthorStatsDto.TopAuthor(key, (String) row[3], value));
+                default -> throw new IllegalStateException("Unexpected aggregate " + row[0]);
+            }
+        }
+        booksPerAuthor.sort(Comparator.comparingLong(AuthorStatsDto.BookCount::getBooks));
+        topAuthors.sort(Comparator.comparingLong(AuthorStatsDto.TopAuthor::getBooks).reversed()
+                .thenComparing(AuthorStatsDto.TopAuthor::getId));
+
+        List<AuthorStatsDto.AgeBucket> ageHistogram = new ArrayList<>(ages.length);
+        for (int i = 0; i < ages.length; i++) {
+            Integer from = i == 0 ? null : ageBoundaries.get(i - 1);
+            Integer to = i == ageBoundaries.size() ? null : ageBoundaries.get(i);
+            ageHistogram.add(new AuthorStatsDto.AgeBucket(from, to, ages[i]));
+        }
+        return new AuthorStatsDto(ageHistogram, booksPerAuthor, topAuthors);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.books_api.repositories.impl;
+
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.repositories.AuthorWriteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.Optional;
+
+public class AuthorWriteRepositoryImpl implements AuthorWriteRepository {
+    private static final String COLUMNS = "id, name, age, version";
+
+    private static final String OVERWRITE =
+            "update authors set name = :name, age = :age, version = version + 1 where id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<AuthorEntity> update(Long id, AuthorEntity changes, Long expectedVersion) {
+        entityManager.flush();
+
+        PartialUpdate update = new PartialUpdate("authors", "id", id, expectedVersion)
+                .set("name", changes.getName())
+                .set("age", changes.getAge());
+
+        if (Dialects.isPostgreSQL(entityManager)) {
+            String sql = update.sql() + " returning " + COLUMNS;
+            return toAuthor(update.bind(entityManager.createNativeQuery(sql)).getResultList());
+        }
+
+        if (update.bind(entityManager.createNativeQuery(update.sql())).executeUpdate() == 0) return Optional.empty();
+        String sql = "select " + COLUMNS + " from authors where id = :id";
+        return toAuthor(entityManager.createNativeQuery(sql).setParameter("id", id).getResultList());
+    }
+
+    @Override
+    public Optional<Long> overwrite(Long id, String name, Integer age) {
+        entityManager.flush();
+
+        String sql = Dialects.isPostgreSQL(entityManager)
+                ? OVERWRITE + " returning version"
+                : "select version from final table (" + OVERWRITE + ")";
+        return entityManager.unwrap(Session.class).createNativeQuery(sql, Long.class)
+                .setParameter("id", id, Long.class)
+                .setParameter("name", name, String.class)
+                .setParameter("age", age, Integer.class)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public AuthorEntity getReference(Long id) {
+        return entityManager.getReference(AuthorEntity.class, id);
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static Optional<AuthorEntity> toAuthor(List<?> rows) {
+        if (rows.isEmpty()) return Optional.empty();
+
+        Object[] row = (Object[]) rows.getFirst();
+        return Optional.of(AuthorEntity.builder()
+                .id(((Number) row[0]).longValue())
+                .name((String) row[1])
+                .age(row[2] == null ? null : ((Number) row[2]).intValue())
+                .version(((Number) row[3]).longValue())
+                .build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.books_api.repositories.impl;
+
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.repositories.BookWriteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class BookWriteRepositoryImpl implements BookWriteRepository {
+    private static final String POSTGRESQL_UPSERT = """
+            insert into books (isbn, title, author_id, version) values (:isbn, :title, :authorId, 0)
+            on conflict (isbn) do update
+            set title = excluded.title, author_id = excluded.author_id, version = books.version + 1
+            returning version""";
+
+    private static final String MERGE_UPSERT = """
+            select version from final table (
+                merge into books b
+                using (select cast(:isbn as varchar(255)) as isbn, cast(:title as varchar(255)) as title,
+                        cast(:authorId as bigint) as author_id) s
+                on b.isbn = s.isbn
+                when matched then update set title = s.title, author_id = s.author_id, version = b.version + 1
+                when not matched then insert (isbn, title, author_id, version)
+                        values (s.isbn, s.title, s.author_id, 0))""";
+
+    private static final String SELECT_WITH_AUTHOR = """
+            select b.isbn, b.title, b.version as book_version,
+                    a.id as author_id, a.name as author_name, a.age as author_age, a.version as author_version
+            from %s b left join authors a on a.id = b.author_id""";
+
+    private static final String EXPECTED_AUTHOR_VERSION = "exists (select 1 from authors a "
+            + "where a.id = books.author_id and a.version = :expectedAuthorVersion)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void persist(BookEntity bookEntity) {
+        entityManager.persist(bookEntity);
+    }
+
+    /**
+     * Pending changes are flushed first so that a newly persisted author exists before the book references it.
+     */
+    @Override
+    public long upsert(BookEntity bookEntity) {
+        entityManager.flush();
+
+        Long authorId = bookEntity.getAuthorEntity() == null ? null : bookEntity.getAuthorEntity().getId();
+        String sql = Dialects.isPostgreSQL(entityManager) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        return entityManager.unwrap(Session.class).createNativeQuery(sql, Long.class)
+                .setParameter("isbn", bookEntity.getIsbn(), String.class)
+                .setParameter("title", bookEntity.getTitle(), String.class)
+                .setParameter("authorId", authorId, Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * On PostgreSQL the UPDATE and the read of the new row, author included, are one statement; elsewhere the row is
+     * re-selected after a successful UPDATE.
+     */
+    @Override
+    public Optional<BookEntity> update(String isbn, BookEntity changes, BookVersion expectedVersion) {
+        entityManager.flush();
+
+        AuthorEntity authorEntity = changes.getAuthorEntity();
+        PartialUpdate update = new PartialUpdate("books", "isbn", isbn,
+                expectedVersion == null ? null : expectedVersion.book())
+                .set("title", changes.getTitle())
+                .set("author_id", authorEntity == null ? null : authorEntity.getId());
+        if (expectedVersion != null && expectedVersion.author() == null) {
+            update.where("author_id is null", Map.of());
+        } else if (expectedVersion != null) {
+            update.where(EXPECTED_AUTHOR_VERSION, Map.of("expectedAuthorVersion", expectedVersion.author()));
+        }
+
+        if (Dialects.isPostgreSQL(entityManager)) {
+            String sql = "with b as (" + update.sql() + " returning isbn, title, author_id, version) "
+                    + SELECT_WITH_AUTHOR.formatted("b");
+            return toBook(update.bind(entityManager.createNativeQuery(sql)).getResultList());
+        }
+
+        if (update.bind(entityManager.createNativeQuery(update.sql())).executeUpdate() == 0) return Optional.empty();
+        String sql = SELECT_WITH_AUTHOR.formatted("books") + " where b.isbn = :isbn";
+        return toBook(entityManager.createNativeQuery(sql).setParameter("isbn", isbn).getResultList());
+    }
+
+    @Override
+    public void flush() {
+        entityManager.flush();
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static Optional<BookEntity> toBook(List<?> rows) {
+        if (rows.isEmpty()) return Optional.empty();
+
+        Object[] row = (Object[]) rows.getFirst();
+        AuthorEntity authorEntity = row[3] == null ? null : AuthorEntity.builder()
+                .id(((Number) row[3]).longValue())
+                .name((String) row[4])
+                .age(row[5] == null ? null : ((Number) row[5]).intValue())
+                .version(((Number) row[6]).longValue())
+                .build();
+        return Optional.of(BookEntity.builder()
+                .isbn((String) row[0])
+                .title((String) row[1])
+                .version(((Number) row[2]).longValue())
+                .authorEntity(authorEntity)
+                .build());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.books_api.repositories.impl;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+final class Dialects {
+    private Dialects() {}
+
+    static boolean isPostgreSQL(EntityManager entityManager) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        return sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.books_api.repositories.impl;
+
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the single {@code UPDATE} behind a PATCH. Only the columns given a non-null value are written; the version is
+ * always bumped and, when an expected version is given, also checked in the same statement.
+ */
+final class PartialUpdate {
+    private final String table;
+    private final String idColumn;
+    private final Object id;
+    private final Long expectedVersion;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> conditionParameters = new LinkedHashMap<>();
+
+    PartialUpdate(String table, String idColumn, Object id, Long expectedVersion) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    PartialUpdate set(String column, Object value) {
+        if (value != null) values.put(column, value);
+        return this;
+    }
+
+    /**
+     * Adds a condition on the row as it was before the update, with the parameters it binds.
+     */
+    PartialUpdate where(String condition, Map<String, Object> parameters) {
+        conditions.add(condition);
+        conditionParameters.putAll(parameters);
+        return this;
+    }
+
+    String sql() {
+        StringBuilder sql = new StringBuilder("update ").append(table).append(" set ");
+        values.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1 where ").append(idColumn).append(" = :id");
+        if (expectedVersion != null) sql.append(" and version = :expectedVersion");
+        conditions.forEach(condition -> sql.append(" and ").append(condition));
+        return sql.toString();
+    }
+
+    <Q extends Query> Q bind(Q query) {
+        values.forEach(query::setParameter);
+        query.setParameter("id", id);
+        if (expectedVersion != null) query.setParameter("expectedVersion", expectedVersion);
+        conditionParameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.books_api.search;
+
+import com.example.books_api.domain.dto.SearchHitDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term-to-books postings for full-text title search. A book matches if its title contains any of the query terms.
+ * Matches are ranked by tf-idf, normalized by title length so that short, focused titles come first.
+ */
+@Component
+public class InvertedTitleIndex implements TitleIndex {
+    private static final Comparator<SearchHitDto> RANKING = Comparator
+            .comparingDouble(SearchHitDto::getScore).reversed()
+            .thenComparing(SearchHitDto::getIsbn);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+
+    private record Document(String title, Set<String> terms, int length) {
+    }
+
+    @Override
+    public void put(String isbn, String title) {
+        List<String> terms = Tokenizer.tokenize(title);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+            if (terms.isEmpty()) return;
+
+            documents.put(isbn, new Document(title, new HashSet<>(terms), terms.size()));
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new HashMap<>()).merge(isbn, 1, Integer::sum);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String isbn) {
+        Document document = documents.remove(isbn);
+        if (document == null) return;
+
+        for (String term : document.terms()) {
+            Map<String, Integer> books = postings.get(term);
+            books.remove(isbn);
+            if (books.isEmpty()) postings.remove(term);
+        }
+    }
+
+    /**
+     * Every match is scored, but only the best {@code offset + size} are kept, in a heap whose root is the worst of
+     * them, so a page costs O(n log k) rather than a sort of all n matches.
+     */
+    public Page<SearchHitDto> search(String query, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        PriorityQueue<SearchHitDto> best = new PriorityQueue<>(RANKING.reversed());
+        int total;
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<String, Integer> books = postings.get(term);
+                if (books == null) continue;
+
+                double idf = Math.log(1 + (double) documents.size() / books.size());
+                books.forEach((isbn, frequency) -> scores.merge(isbn, frequency * idf, Double::sum));
+            }
+
+            total = scores.size();
+            scores.forEach((isbn, score) -> {
+                Document document = documents.get(isbn);
+                SearchHitDto hit = new SearchHitDto(isbn, document.title(), score / Math.sqrt(document.length()));
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHitDto> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        return new PageImpl<>(List.copyOf(hits.subList(from, hits.size())), pageable, total);
+    }
+}
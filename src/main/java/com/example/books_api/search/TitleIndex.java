@@ -0,0 +1,13 @@
+package com.example.books_api.search;
+
+/**
+ * An in-memory index over book titles, kept in step with the database by {@code BookServiceImpl} after each commit.
+ */
+public interface TitleIndex {
+    /**
+     * Adds the book, or replaces what was indexed for it before. A null title removes it.
+     */
+    void put(String isbn, String title);
+
+    void remove(String isbn);
+}
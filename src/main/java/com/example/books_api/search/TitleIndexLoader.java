@@ -0,0 +1,37 @@
+package com.example.books_api.search;
+
+import com.example.books_api.config.ReadRouting;
+import com.example.books_api.services.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the title indexes from the database once all beans are ready, which is before the web server starts taking
+ * requests. From then on {@code BookServiceImpl} keeps them current, so the load reads the primary: books missing from
+ * a lagging replica would never be indexed.
+ */
+@Slf4j
+@Component
+class TitleIndexLoader implements SmartInitializingSingleton {
+    private final BookService bookService;
+    private final List<TitleIndex> titleIndexes;
+
+    TitleIndexLoader(BookService bookService, List<TitleIndex> titleIndexes) {
+        this.bookService = bookService;
+        this.titleIndexes = titleIndexes;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        int[] count = {0};
+        ReadRouting.onPrimary(() -> bookService.streamAll(bookEntity -> {
+            titleIndexes.forEach(index -> index.put(bookEntity.getIsbn(), bookEntity.getTitle()));
+            count[0]++;
+        }));
+        log.info("Indexed {} book titles in {} ms", count[0], (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.books_api.search;
+
+import com.example.books_api.domain.dto.SuggestionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Radix tree over folded titles for typeahead. Edges are path-compressed char arrays and each node keeps its children
+ * in a sorted array rather than a map. A lookup walks the prefix and then reads the first {@code limit} titles under
+ * it in alphabetical order, so its cost depends on the prefix and the limit but not on the size of the catalog.
+ */
+@Component
+public class TitleTrie implements TitleIndex {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Node[] NO_CHILDREN = {};
+    private static final String[] NO_ISBNS = {};
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node(new char[0]);
+    private final Map<String, String> titles = new HashMap<>();
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private String[] isbns = NO_ISBNS;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+    }
+
+    @Override
+    public void put(String isbn, String title) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+            String key = title == null ? "" : key(title);
+            if (key.isEmpty()) return;
+
+            titles.put(isbn, title);
+            insert(root, key.toCharArray(), isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} books whose folded title starts with the folded {@code prefix}, alphabetically.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        char[] key = key(prefix).toCharArray();
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int offset = 0;
+            while (offset < key.length) {
+                int index = childIndex(node, key[offset]);
+                if (index < 0) return List.of();
+
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, offset);
+                if (common < child.label.length && offset + common < key.length) return List.of();
+                node = child;
+                offset += common;
+            }
+
+            List<SuggestionDto> suggestions = new ArrayList<>(limit);
+            collect(node, limit, suggestions);
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Node node, int limit, List<SuggestionDto> suggestions) {
+        for (String isbn : node.isbns) {
+            if (suggestions.size() == limit) return;
+            suggestions.add(new SuggestionDto(isbn, titles.get(isbn)));
+        }
+        for (Node child : node.children) {
+            if (suggestions.size() == limit) return;
+            collect(child, limit, suggestions);
+        }
+    }
+
+    private void removeLocked(String isbn) {
+        String title = titles.remove(isbn);
+        if (title != null) delete(root, key(title).toCharArray(), 0, isbn);
+    }
+
+    private static String key(String text) {
+        return WHITESPACE.matcher(Tokenizer.fold(text)).replaceAll(" ").strip();
+    }
+
+    private static void insert(Node node, char[] key, String isbn) {
+        int offset = 0;
+        while (offset < key.length) {
+            int index = childIndex(node, key[offset]);
+            if (index < 0) {
+                Node leaf = new Node(Arrays.copyOfRange(key, offset, key.length));
+                leaf.isbns = new String[] {isbn};
+                node.children = insertAt(node.children, -index - 1, leaf);
+                return;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, offset);
+            if (common < child.label.length) {
+                Node split = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                split.children = new Node[] {child};
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            offset += common;
+        }
+        node.isbns = addSorted(node.isbns, isbn);
+    }
+
+    /**
+     * Removes the isbn below {@code node}, then prunes nodes left empty and merges a node left with a single child into
+     * that child, so the tree stays as compact as if the title had never been added.
+     */
+    private static void delete(Node node, char[] key, int offset, String isbn) {
+        if (offset == key.length) {
+            node.isbns = removeSorted(node.isbns, isbn);
+            return;
+        }
+
+        int index = childIndex(node, key[offset]);
+        if (index < 0) return;
+        Node child = node.children[index];
+        if (commonPrefix(child.label, key, offset) < child.label.length) return;
+
+        delete(child, key, offset + child.label.length, isbn);
+        if (child.isbns.length > 0) return;
+        if (child.children.length == 0) {
+            node.children = removeAt(node.children, index);
+        } else if (child.children.length == 1) {
+            Node grandchild = child.children[0];
+            char[] label = Arrays.copyOf(child.label, child.label.length + grandchild.label.length);
+            System.arraycopy(grandchild.label, 0, label, child.label.length, grandchild.label.length);
+            grandchild.label = label;
+            node.children[index] = grandchild;
+        }
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = node.children[middle].label[0];
+            if (candidate < first) {
+                low = middle + 1;
+            } else if (candidate > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, char[] key, int offset) {
+        int length = Math.min(label.length, key.length - offset);
+        int common = 0;
+        while (common < length && label[common] == key[offset + common]) common++;
+        return common;
+    }
+
+    private static Node[] insertAt(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static Node[] removeAt(Node[] children, int index) {
+        if (children.length == 1) return NO_CHILDREN;
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static String[] addSorted(String[] isbns, String isbn) {
+        int index = Arrays.binarySearch(isbns, isbn);
+        if (index >= 0) return isbns;
+
+        int at = -index - 1;
+        String[] result = new String[isbns.length + 1];
+        System.arraycopy(isbns, 0, result, 0, at);
+        result[at] = isbn;
+        System.arraycopy(isbns, at, result, at + 1, isbns.length - at);
+        return result;
+    }
+
+    private static String[] removeSorted(String[] isbns, String isbn) {
+        int index = Arrays.binarySearch(isbns, isbn);
+        if (index < 0) return isbns;
+        if (isbns.length == 1) return NO_ISBNS;
+
+        String[] result = new String[isbns.length - 1];
+        System.arraycopy(isbns, 0, result, 0, index);
+        System.arraycopy(isbns, index + 1, result, index, isbns.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.books_api.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits titles into case-folded, accent-free terms on anything that is not a letter or digit.
+ */
+final class Tokenizer {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {}
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+
+        for (String term : SEPARATORS.split(fold(text))) {
+            if (!term.isEmpty()) terms.add(term);
+        }
+        return terms;
+    }
+}
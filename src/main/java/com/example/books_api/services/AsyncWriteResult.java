@@ -0,0 +1,21 @@
+package com.example.books_api.services;
+
+/**
+ * Outcome of handing an update to the write-behind queue.
+ */
+public enum AsyncWriteResult {
+    /**
+     * Queued, possibly merged into an update already pending for the same key; it is written on the next flush.
+     */
+    ACCEPTED,
+
+    /**
+     * The queue is at capacity. Nothing was queued and the caller should back off.
+     */
+    REJECTED,
+
+    /**
+     * Write-behind is switched off; the caller should write synchronously instead.
+     */
+    DISABLED
+}
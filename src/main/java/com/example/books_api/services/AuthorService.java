@@ -1,24 +1,76 @@
 package com.example.books_api.services;
 
+import com.example.books_api.domain.dto.AuthorStatsDto;
+import com.example.books_api.domain.dto.AuthorView;
 import com.example.books_api.domain.entities.AuthorEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorService {
     AuthorEntity saveAuthor(AuthorEntity authorEntity);
 
+    /**
+     * Saves the author only if its current version is {@code expectedVersion}; returns empty when it is not, or when
+     * the author does not exist.
+     */
+    Optional<AuthorEntity> saveAuthor(AuthorEntity authorEntity, long expectedVersion);
+
+    /**
+     * Creates all the authors in one transaction, ignoring any ids they carry, and returns them with their new ids.
+     */
+    List<AuthorEntity> createAuthors(List<AuthorEntity> authorEntities);
+
     List<AuthorEntity> findAll();
 
-    Page<AuthorEntity> findAll(Pageable pageable);
+    Page<AuthorView> findAll(Pageable pageable);
+
+    /**
+     * Returns up to {@code limit} authors whose id sorts after {@code after}, in id order.
+     */
+    List<AuthorEntity> findAfter(Long after, int limit);
 
-    Optional<AuthorEntity> findOne(Long id);
+    void streamAll(Consumer<AuthorEntity> consumer);
+
+    Optional<AuthorView> findOne(Long id);
 
     boolean isPresent(Long id);
 
-    AuthorEntity partialUpdateAuthor(Long id, AuthorEntity authorEntity);
+    Optional<Long> findVersion(Long id);
+
+    /**
+     * Applies the non-null fields of {@code authorEntity}; returns empty when the author does not exist.
+     */
+    Optional<AuthorEntity> partialUpdateAuthor(Long id, AuthorEntity authorEntity);
+
+    /**
+     * Conditional form of {@link #partialUpdateAuthor(Long, AuthorEntity)}, with the same contract as the conditional
+     * {@link #saveAuthor(AuthorEntity, long)}.
+     */
+    Optional<AuthorEntity> partialUpdateAuthor(Long id, AuthorEntity authorEntity, long expectedVersion);
+
+    /**
+     * Queues a partial update of the author, merged with any other still pending for it; see
+     * {@link BookService#partialUpdateLater}.
+     */
+    AsyncWriteResult partialUpdateAuthorLater(Long id, AuthorEntity authorEntity);
+
+    void flushPendingWrites();
+
+    /**
+     * Author counterpart of {@link BookService#hasPendingWrite}.
+     */
+    boolean hasPendingWrite(Long id);
 
     void delete(Long id);
+
+    /**
+     * Batch form of {@link #delete(Long)}; see {@link BookService#deleteAll}.
+     */
+    int deleteAll(List<Long> ids);
+
+    AuthorStatsDto stats(List<Integer> ageBoundaries, int top);
 }
@@ -1,24 +1,110 @@
 package com.example.books_api.services;
 
+import com.example.books_api.domain.dto.BookBatchResultDto;
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.dto.BookView;
+import com.example.books_api.domain.dto.SearchHitDto;
+import com.example.books_api.domain.dto.SuggestionDto;
 import com.example.books_api.domain.entities.BookEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
+    /**
+     * Creates or replaces the book. The returned book carries its new version, which is {@code 0} only when this call
+     * created it.
+     */
     BookEntity saveBook(String isbn, BookEntity bookEntity);
 
+    /**
+     * Saves the book only if it and its current author are still at {@code expectedVersion}; returns empty when they
+     * are not, or when the book does not exist. The returned book carries its new version.
+     */
+    Optional<BookEntity> saveBook(String isbn, BookEntity bookEntity, BookVersion expectedVersion);
+
+    /**
+     * The versions of a book as returned by {@code saveBook}, or empty when the save did not learn its author's: in
+     * reference mode the author row is never read.
+     */
+    Optional<BookVersion> savedVersion(BookEntity savedBookEntity);
+
+    List<BookBatchResultDto> saveBooks(List<BookEntity> bookEntities);
+
     List<BookEntity> findAll();
 
-    Page<BookEntity> findAll(Pageable pageable);
+    Page<BookView> findAll(Pageable pageable);
+
+    /**
+     * Returns up to {@code limit} books whose isbn sorts after {@code after}, in isbn order.
+     */
+    List<BookEntity> findAfter(String after, int limit);
 
-    Optional<BookEntity> findOne(String isbn);
+    /**
+     * Returns up to {@code limit} of the author's books whose isbn sorts after {@code after}, in isbn order, or empty
+     * when the author does not exist. The author is read once and shared by every book on the page.
+     */
+    Optional<List<BookView>> findByAuthorAfter(Long authorId, String after, int limit);
+
+    long countByAuthor(Long authorId);
+
+    void streamAll(Consumer<BookEntity> consumer);
+
+    Optional<BookView> findOne(String isbn);
 
     boolean isPresent(String isbn);
 
-    BookEntity partialUpdate(String isbn, BookEntity bookEntity);
+    /**
+     * The book's version together with its author's, without loading the book when it is not cached.
+     */
+    Optional<BookVersion> findVersion(String isbn);
+
+    /**
+     * Applies the non-null fields of {@code bookEntity}; returns empty when the book does not exist.
+     */
+    Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity);
+
+    /**
+     * Conditional form of {@link #partialUpdate(String, BookEntity)}, with the same contract as the conditional
+     * {@link #saveBook(String, BookEntity, BookVersion)}.
+     */
+    Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity, BookVersion expectedVersion);
+
+    /**
+     * Queues a partial update to be written later, together with any other update pending for the same book. Until it
+     * is written, {@link #findOne(String)} already reflects it; if the book is gone by then, the update is dropped.
+     */
+    AsyncWriteResult partialUpdateLater(String isbn, BookEntity bookEntity);
+
+    /**
+     * Writes all queued updates now.
+     */
+    void flushPendingWrites();
+
+    /**
+     * Whether an update queued for the book has not been committed yet, so that its stored version does not describe
+     * what {@link #findOne(String)} returns.
+     */
+    boolean hasPendingWrite(String isbn);
 
     void delete(String isbn);
+
+    /**
+     * Deletes the given books in one transaction, with one DELETE per chunk of isbns and without loading them, and
+     * returns how many existed.
+     */
+    int deleteAll(List<String> isbns);
+
+    /**
+     * Ranks books by how well their titles match the terms of {@code query}, from the in-memory title index.
+     */
+    Page<SearchHitDto> search(String query, Pageable pageable);
+
+    /**
+     * Returns up to {@code limit} books whose titles start with {@code prefix}, ignoring case and accents.
+     */
+    List<SuggestionDto> suggest(String prefix, int limit);
 }
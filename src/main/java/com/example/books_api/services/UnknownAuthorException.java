@@ -0,0 +1,15 @@
+package com.example.books_api.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A book referenced an author id that has no row. Only raised when books link to authors by reference, since the
+ * merge mode creates or overwrites the author instead.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class UnknownAuthorException extends RuntimeException {
+    public UnknownAuthorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,30 +1,94 @@
 package com.example.books_api.services.impl;
 
+import com.example.books_api.config.ReadRouting;
+import com.example.books_api.domain.dto.AuthorStatsDto;
+import com.example.books_api.domain.dto.AuthorView;
 import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.repositories.AuthorRepository;
+import com.example.books_api.services.AsyncWriteResult;
 import com.example.books_api.services.AuthorService;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Service
 public class AuthorServiceImpl implements AuthorService {
     private final AuthorRepository authorRepository;
+    private final Cache<Long, Optional<AuthorView>> authorCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final WriteBehindBuffer<Long, AuthorEntity> pendingWrites;
+    private final int batchSize;
 
-    AuthorServiceImpl(AuthorRepository authorRepository) {
+    AuthorServiceImpl(AuthorRepository authorRepository, Cache<Long, Optional<AuthorView>> authorCache,
+                      CacheInvalidator cacheInvalidator, WriteBehind writeBehind,
+                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.authorRepository = authorRepository;
+        this.authorCache = authorCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.batchSize = batchSize;
+        this.pendingWrites = writeBehind.buffer("author-write-behind", AuthorServiceImpl::merge, this::writePending);
     }
 
     @Override
+    @Transactional
     public AuthorEntity saveAuthor(AuthorEntity authorEntity) {
-        return authorRepository.save(authorEntity);
+        if (authorEntity.getId() != null) {
+            writePendingFirst(List.of(authorEntity.getId()));
+            authorRepository.incrementVersion(authorEntity.getId());
+        }
+        return save(authorEntity);
     }
 
     @Override
+    @Transactional
+    public Optional<AuthorEntity> saveAuthor(AuthorEntity authorEntity, long expectedVersion) {
+        writePendingFirst(List.of(authorEntity.getId()));
+        if (authorRepository.incrementVersion(authorEntity.getId(), expectedVersion) == 0) return Optional.empty();
+        return Optional.of(save(authorEntity));
+    }
+
+    private AuthorEntity save(AuthorEntity authorEntity) {
+        AuthorEntity savedAuthorEntity = authorRepository.save(authorEntity);
+        cacheInvalidator.author(savedAuthorEntity.getId());
+        return savedAuthorEntity;
+    }
+
+    /**
+     * Persists one JDBC batch at a time and clears the persistence context between batches. With pooled-lo id
+     * allocation each batch costs one {@code nextval} and one batched INSERT.
+     */
+    @Override
+    @Transactional
+    public List<AuthorEntity> createAuthors(List<AuthorEntity> authorEntities) {
+        List<AuthorEntity> created = new ArrayList<>(authorEntities.size());
+        for (int from = 0; from < authorEntities.size(); from += batchSize) {
+            List<AuthorEntity> chunk = authorEntities.subList(from, Math.min(from + batchSize, authorEntities.size()));
+            chunk.forEach(authorEntity -> authorEntity.setId(null));
+            authorRepository.saveAll(chunk).forEach(created::add);
+            authorRepository.flushAndClear();
+        }
+
+        cacheInvalidator.newAuthors(created.stream().map(AuthorEntity::getId).toList());
+        return created;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AuthorEntity> findAll() {
         return StreamSupport.stream(
                 authorRepository.findAll().spliterator(),
@@ -33,37 +97,145 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
-    public Page<AuthorEntity> findAll(Pageable pageable) {
-        return authorRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<AuthorView> findAll(Pageable pageable) {
+        return authorRepository.findAllViews(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorEntity> findAfter(Long after, int limit) {
+        return authorRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
     }
 
+    /**
+     * Walks the whole table through a forward-only cursor, clearing the persistence context after every fetch so
+     * that memory use does not grow with the number of authors.
+     */
     @Override
-    public Optional<AuthorEntity> findOne(Long id) {
-        return authorRepository.findById(id);
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<AuthorEntity> consumer) {
+        try (Stream<AuthorEntity> authors = authorRepository.streamAll()) {
+            Iterator<AuthorEntity> iterator = authors.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % AuthorRepository.STREAM_FETCH_SIZE == 0) authorRepository.flushAndClear();
+            }
+        }
+    }
+
+    @Override
+    public Optional<AuthorView> findOne(Long id) {
+        Optional<AuthorView> stored = ReadRouting.primary()
+                ? authorRepository.findViewById(id)
+                : authorCache.get(id, authorRepository::findViewById);
+        AuthorEntity pending = pendingWrites.pending(id);
+        return pending == null ? stored : stored.map(author -> new AuthorView(
+                author.id(),
+                pending.getName() != null ? pending.getName() : author.name(),
+                pending.getAge() != null ? pending.getAge() : author.age(),
+                author.version()));
     }
 
     @Override
     public boolean isPresent(Long id) {
-        return authorRepository.existsById(id);
+        return findOne(id).isPresent();
     }
 
     @Override
-    public AuthorEntity partialUpdateAuthor(Long id, AuthorEntity authorEntity) {
-        Optional<AuthorEntity> existing = authorRepository.findById(id);
-        if (existing.isPresent()) {
-            AuthorEntity existingAuthor = existing.get();
-            Optional.ofNullable(authorEntity.getName()).ifPresent(existingAuthor::setName);
-            Optional.ofNullable(authorEntity.getAge()).ifPresent(existingAuthor::setAge);
-            authorRepository.save(existingAuthor);
+    public Optional<Long> findVersion(Long id) {
+        Optional<AuthorView> cached = ReadRouting.primary() ? null : authorCache.getIfPresent(id);
+        if (cached != null) return cached.map(AuthorView::version);
 
-            return existingAuthor;
-        } else {
-            throw new RuntimeException("Author does not exist.");
-        }
+        return authorRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional
+    public Optional<AuthorEntity> partialUpdateAuthor(Long id, AuthorEntity authorEntity) {
+        return applyPartialUpdate(id, authorEntity, null);
+    }
+
+    @Override
+    @Transactional
+    public Optional<AuthorEntity> partialUpdateAuthor(Long id, AuthorEntity authorEntity, long expectedVersion) {
+        return applyPartialUpdate(id, authorEntity, expectedVersion);
+    }
+
+    private Optional<AuthorEntity> applyPartialUpdate(Long id, AuthorEntity authorEntity, Long expectedVersion) {
+        writePendingFirst(List.of(id));
+        Optional<AuthorEntity> updated = authorRepository.update(id, authorEntity, expectedVersion);
+        updated.ifPresent(author -> cacheInvalidator.author(id));
+        return updated;
+    }
+
+    @Override
+    public AsyncWriteResult partialUpdateAuthorLater(Long id, AuthorEntity authorEntity) {
+        return pendingWrites.offer(id, authorEntity);
+    }
+
+    @Override
+    public void flushPendingWrites() {
+        pendingWrites.flush();
+    }
+
+    @Override
+    public boolean hasPendingWrite(Long id) {
+        return pendingWrites.isPending(id);
+    }
+
+    /**
+     * Same as {@code BookServiceImpl}'s: what is still queued for the authors is written ahead of a synchronous write
+     * to them, and goes back in the queue if the transaction rolls back.
+     */
+    private void writePendingFirst(Collection<Long> ids) {
+        Map<Long, AuthorEntity> pending = pendingWrites.take(ids);
+        if (pending.isEmpty()) return;
+
+        AfterCommit.onRollback(() -> pendingWrites.requeue(pending));
+        writePending(pending);
+    }
+
+    private static AuthorEntity merge(AuthorEntity older, AuthorEntity newer) {
+        return AuthorEntity.builder()
+                .name(newer.getName() != null ? newer.getName() : older.getName())
+                .age(newer.getAge() != null ? newer.getAge() : older.getAge())
+                .build();
+    }
+
+    /**
+     * Runs inside the flush transaction; an author deleted in the meantime updates no row and is skipped.
+     */
+    private void writePending(Map<Long, AuthorEntity> batch) {
+        batch.forEach((id, changes) -> authorRepository.update(id, changes, null)
+                .ifPresent(updated -> cacheInvalidator.author(id)));
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        authorRepository.deleteById(id);
+        deleteAll(List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteAll(List<Long> ids) {
+        List<Long> keys = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, AuthorEntity> discarded = pendingWrites.take(keys);
+        if (!discarded.isEmpty()) AfterCommit.onRollback(() -> pendingWrites.requeue(discarded));
+
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += AuthorRepository.DELETE_CHUNK_SIZE) {
+            int to = Math.min(from + AuthorRepository.DELETE_CHUNK_SIZE, keys.size());
+            deleted += authorRepository.deleteByIds(keys.subList(from, to));
+        }
+
+        if (deleted > 0) cacheInvalidator.authors(keys);
+        return deleted;
+    }
+
+    @Override
+    public AuthorStatsDto stats(List<Integer> ageBoundaries, int top) {
+        return authorRepository.stats(ageBoundaries, top);
     }
 }
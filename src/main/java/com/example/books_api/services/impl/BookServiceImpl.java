@@ -1,69 +1,557 @@
 package com.example.books_api.services.impl;
 
+import com.example.books_api.config.ReadRouting;
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookBatchResultDto;
+import com.example.books_api.domain.dto.SearchHitDto;
+import com.example.books_api.domain.dto.SuggestionDto;
+import com.example.books_api.domain.dto.BookVersion;
+import com.example.books_api.domain.dto.BookView;
+import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.repositories.AuthorRepository;
 import com.example.books_api.repositories.BookRepository;
+import com.example.books_api.search.InvertedTitleIndex;
+import com.example.books_api.search.TitleIndex;
+import com.example.books_api.search.TitleTrie;
+import com.example.books_api.services.AsyncWriteResult;
 import com.example.books_api.services.BookService;
+import com.example.books_api.services.UnknownAuthorException;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Service
 public class BookServiceImpl implements BookService {
+    /**
+     * How a book write treats the author it carries, set by {@code books-api.books.author-writes}. {@code merge}
+     * creates or overwrites the author along with the book. {@code reference} links the book to an existing author by
+     * id without reading or writing the author row, and only creates authors that come without an id.
+     */
+    enum AuthorWrites {
+        MERGE,
+        REFERENCE
+    }
+
     private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final Cache<String, Optional<BookView>> bookCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final InvertedTitleIndex invertedTitleIndex;
+    private final TitleTrie titleTrie;
+    private final List<TitleIndex> titleIndexes;
+    private final int batchSize;
+    private final AuthorWrites authorWrites;
+    private final WriteBehindBuffer<String, BookEntity> pendingWrites;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+                           Cache<String, Optional<BookView>> bookCache, CacheInvalidator cacheInvalidator,
+                           InvertedTitleIndex invertedTitleIndex, TitleTrie titleTrie, List<TitleIndex> titleIndexes,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                           WriteBehind writeBehind,
+                           @Value("${books-api.books.author-writes:merge}") AuthorWrites authorWrites) {
         this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookCache = bookCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.invertedTitleIndex = invertedTitleIndex;
+        this.titleTrie = titleTrie;
+        this.titleIndexes = titleIndexes;
+        this.batchSize = batchSize;
+        this.authorWrites = authorWrites;
+        this.pendingWrites = writeBehind.buffer("book-write-behind", BookServiceImpl::merge, this::writePending);
     }
 
+    /**
+     * Writes the book with a single upsert instead of a lookup followed by a {@code merge}. An author that already
+     * exists is overwritten with one UPDATE as well, unless authors are only referenced; only a new author goes
+     * through the persistence context.
+     */
     @Override
+    @Transactional
     public BookEntity saveBook(String isbn, BookEntity bookEntity) {
+        writePendingFirst(List.of(isbn));
         bookEntity.setIsbn(isbn);
-        return bookRepository.save(bookEntity);
+        bookEntity.setAuthorEntity(saveAuthor(bookEntity.getAuthorEntity()));
+        try {
+            bookEntity.setVersion(bookRepository.upsert(bookEntity));
+        } catch (DataIntegrityViolationException e) {
+            throw unknownAuthor(bookEntity.getAuthorEntity(), e);
+        }
+        invalidate(bookEntity);
+        index(bookEntity);
+        return bookEntity;
+    }
+
+    private AuthorEntity saveAuthor(AuthorEntity authorEntity) {
+        if (authorEntity == null) return null;
+        Long id = authorEntity.getId();
+        if (id != null && authorWrites == AuthorWrites.REFERENCE) return referenceTo(id);
+        Optional<Long> overwrittenVersion = id == null
+                ? Optional.empty()
+                : authorRepository.overwrite(id, authorEntity.getName(), authorEntity.getAge());
+        if (overwrittenVersion.isPresent()) {
+            authorEntity.setVersion(overwrittenVersion.get());
+            return authorEntity;
+        }
+
+        AuthorEntity savedAuthorEntity = authorRepository.save(authorEntity);
+        if (authorWrites == AuthorWrites.REFERENCE) cacheInvalidator.newAuthors(List.of(savedAuthorEntity.getId()));
+        return savedAuthorEntity;
+    }
+
+    /**
+     * The author of a book written in reference mode, as far as the write knows it. Whatever else the request sent
+     * about the author was ignored, so it is not echoed back as if it had been stored.
+     */
+    private static AuthorEntity referenceTo(Long id) {
+        return AuthorEntity.builder().id(id).build();
+    }
+
+    /**
+     * Only a referenced author can be missing; in merge mode the violation is something else and is left alone.
+     */
+    private RuntimeException unknownAuthor(AuthorEntity authorEntity, DataIntegrityViolationException e) {
+        if (authorWrites != AuthorWrites.REFERENCE || authorEntity == null || authorEntity.getId() == null) return e;
+        return new UnknownAuthorException("Author %d does not exist.".formatted(authorEntity.getId()), e);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BookEntity> saveBook(String isbn, BookEntity bookEntity, BookVersion expectedVersion) {
+        writePendingFirst(List.of(isbn));
+        int incremented = expectedVersion.author() == null
+                ? bookRepository.incrementVersion(isbn, expectedVersion.book())
+                : bookRepository.incrementVersion(isbn, expectedVersion.book(), expectedVersion.author());
+        if (incremented == 0) return Optional.empty();
+
+        BookEntity savedBookEntity = save(isbn, bookEntity);
+        savedBookEntity.setVersion(expectedVersion.book() + 1);
+        return Optional.of(savedBookEntity);
+    }
+
+    @Override
+    public Optional<BookVersion> savedVersion(BookEntity savedBookEntity) {
+        if (authorWrites == AuthorWrites.REFERENCE && savedBookEntity.getAuthorEntity() != null) {
+            return Optional.empty();
+        }
+        return Optional.of(BookVersion.of(savedBookEntity));
+    }
+
+    private BookEntity save(String isbn, BookEntity bookEntity) {
+        bookEntity.setIsbn(isbn);
+        AuthorEntity authorEntity = bookEntity.getAuthorEntity();
+        if (authorWrites == AuthorWrites.REFERENCE && authorEntity != null && authorEntity.getId() != null) {
+            return saveReferencingAuthor(bookEntity, authorEntity);
+        }
+
+        bookEntity.setAuthorEntity(saveAuthor(authorEntity));
+        BookEntity savedBookEntity = bookRepository.save(bookEntity);
+        invalidate(savedBookEntity);
+        index(savedBookEntity);
+        return savedBookEntity;
+    }
+
+    /**
+     * Merges the book with an uninitialized proxy in place of the author, so the cascade has nothing to load or write.
+     * The flush surfaces a missing author here rather than at commit, and the book is returned with the author's id
+     * only, since reading the proxy would load the row after all.
+     */
+    private BookEntity saveReferencingAuthor(BookEntity bookEntity, AuthorEntity authorEntity) {
+        bookEntity.setAuthorEntity(authorRepository.getReference(authorEntity.getId()));
+        BookEntity savedBookEntity = bookRepository.save(bookEntity);
+        try {
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw unknownAuthor(authorEntity, e);
+        }
+
+        BookEntity result = BookEntity.builder()
+                .isbn(savedBookEntity.getIsbn())
+                .title(savedBookEntity.getTitle())
+                .authorEntity(referenceTo(authorEntity.getId()))
+                .version(savedBookEntity.getVersion())
+                .build();
+        invalidate(result);
+        index(result);
+        return result;
     }
 
+    /**
+     * Upserts the books in one transaction, one JDBC batch at a time. Each chunk costs a single SELECT for the
+     * existing books and their current authors (and one for the referenced authors) before its INSERTs and UPDATEs are
+     * flushed together.
+     */
     @Override
+    @Transactional
+    public List<BookBatchResultDto> saveBooks(List<BookEntity> bookEntities) {
+        writePendingFirst(bookEntities.stream().map(BookEntity::getIsbn).toList());
+        List<BookBatchResultDto> results = new ArrayList<>(bookEntities.size());
+        Set<String> seen = new HashSet<>();
+
+        for (int from = 0; from < bookEntities.size(); from += batchSize) {
+            List<BookEntity> chunk = bookEntities.subList(from, Math.min(from + batchSize, bookEntities.size()));
+            saveChunk(chunk, seen, results);
+            try {
+                bookRepository.flushAndClear();
+            } catch (DataIntegrityViolationException e) {
+                if (authorWrites != AuthorWrites.REFERENCE) throw e;
+                throw new UnknownAuthorException("A referenced author does not exist.", e);
+            }
+        }
+
+        return results;
+    }
+
+    private void saveChunk(List<BookEntity> chunk, Set<String> seen, List<BookBatchResultDto> results) {
+        Set<String> isbns = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (BookEntity bookEntity : chunk) {
+            if (bookEntity.getIsbn() != null) isbns.add(bookEntity.getIsbn());
+            AuthorEntity authorEntity = bookEntity.getAuthorEntity();
+            if (authorEntity != null && authorEntity.getId() != null && authorWrites == AuthorWrites.MERGE) {
+                authorIds.add(authorEntity.getId());
+            }
+        }
+
+        Map<String, BookEntity> existingBooks = new HashMap<>();
+        Map<Long, AuthorEntity> existingAuthors = new HashMap<>();
+        if (!isbns.isEmpty()) {
+            for (BookEntity book : bookRepository.findAllWithAuthorsByIsbnIn(isbns)) {
+                existingBooks.put(book.getIsbn(), book);
+                AuthorEntity author = book.getAuthorEntity();
+                if (author != null) existingAuthors.put(author.getId(), author);
+            }
+        }
+        Set<Long> missingAuthorIds = new HashSet<>(authorIds);
+        missingAuthorIds.removeAll(existingAuthors.keySet());
+        if (!missingAuthorIds.isEmpty()) {
+            authorRepository.findAllById(missingAuthorIds).forEach(author -> existingAuthors.put(author.getId(), author));
+        }
+        Set<String> updatedIsbns = new HashSet<>();
+        Set<Long> updatedAuthorIds = new HashSet<>();
+        List<String> writtenIsbns = new ArrayList<>();
+
+        for (BookEntity bookEntity : chunk) {
+            String isbn = bookEntity.getIsbn();
+            if (isbn == null || isbn.isBlank()) {
+                results.add(failed(isbn, "Book has no ISBN."));
+                continue;
+            }
+            if (!seen.add(isbn)) {
+                results.add(failed(isbn, "ISBN appears more than once in the batch."));
+                continue;
+            }
+
+            AuthorEntity authorEntity = bookEntity.getAuthorEntity();
+            if (authorEntity != null && authorEntity.getId() != null && authorWrites == AuthorWrites.REFERENCE) {
+                authorEntity = authorRepository.getReference(authorEntity.getId());
+            } else if (authorEntity != null && authorEntity.getId() != null) {
+                AuthorEntity existingAuthor = existingAuthors.get(authorEntity.getId());
+                if (existingAuthor == null) {
+                    results.add(failed(isbn, "Author does not exist."));
+                    continue;
+                }
+                existingAuthor.setName(authorEntity.getName());
+                existingAuthor.setAge(authorEntity.getAge());
+                authorEntity = existingAuthor;
+                updatedAuthorIds.add(authorEntity.getId());
+            }
+
+            BookEntity existingBook = existingBooks.get(isbn);
+            if (existingBook != null) {
+                existingBook.setTitle(bookEntity.getTitle());
+                existingBook.setAuthorEntity(authorEntity);
+                updatedIsbns.add(isbn);
+                results.add(new BookBatchResultDto(isbn, BookBatchResultDto.Status.UPDATED, null));
+            } else {
+                bookEntity.setAuthorEntity(authorEntity);
+                bookRepository.persist(bookEntity);
+                results.add(new BookBatchResultDto(isbn, BookBatchResultDto.Status.CREATED, null));
+            }
+            writtenIsbns.add(isbn);
+            index(bookEntity);
+        }
+
+        if (!updatedIsbns.isEmpty()) bookRepository.incrementVersions(updatedIsbns);
+        if (!updatedAuthorIds.isEmpty()) authorRepository.incrementVersions(updatedAuthorIds);
+        if (!writtenIsbns.isEmpty()) cacheInvalidator.books(writtenIsbns);
+        if (!updatedAuthorIds.isEmpty()) cacheInvalidator.authors(updatedAuthorIds);
+    }
+
+    private static BookBatchResultDto failed(String isbn, String error) {
+        return new BookBatchResultDto(isbn, BookBatchResultDto.Status.FAILED, error);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<BookEntity> findAll() {
         return StreamSupport.stream(bookRepository.findAll().spliterator(), false).toList();
     }
 
     @Override
-    public Page<BookEntity> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<BookView> findAll(Pageable pageable) {
+        return bookRepository.findAllViews(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookEntity> findAfter(String after, int limit) {
+        return bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(after, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<BookView>> findByAuthorAfter(Long authorId, String after, int limit) {
+        return authorRepository.findViewById(authorId).map(author -> bookRepository
+                .findViewsByAuthorAfter(authorId, after, Limit.of(limit)).stream()
+                .map(book -> book.withAuthor(author))
+                .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countByAuthor(Long authorId) {
+        return bookRepository.countByAuthorEntityId(authorId);
     }
 
+    /**
+     * Walks the whole table through a forward-only cursor, clearing the persistence context after every fetch so
+     * that memory use does not grow with the number of books.
+     */
     @Override
-    public Optional<BookEntity> findOne(String isbn) {
-        return bookRepository.findById(isbn);
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BookEntity> consumer) {
+        try (Stream<BookEntity> books = bookRepository.streamAll()) {
+            Iterator<BookEntity> iterator = books.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % BookRepository.STREAM_FETCH_SIZE == 0) bookRepository.flushAndClear();
+            }
+        }
+    }
+
+    @Override
+    public Optional<BookView> findOne(String isbn) {
+        Optional<BookView> stored = ReadRouting.primary()
+                ? bookRepository.findViewByIsbn(isbn)
+                : bookCache.get(isbn, bookRepository::findViewByIsbn);
+        BookEntity pending = pendingWrites.pending(isbn);
+        return pending == null ? stored : stored.map(book -> overlay(book, pending));
+    }
+
+    /**
+     * Shows a queued update on top of the stored book. The version stays that of the stored book, since the update
+     * has not been given one yet.
+     */
+    private static BookView overlay(BookView book, BookEntity changes) {
+        String title = changes.getTitle() != null ? changes.getTitle() : book.title();
+        AuthorView author = book.author();
+        AuthorEntity authorEntity = changes.getAuthorEntity();
+        if (authorEntity != null) {
+            long authorVersion = author != null && author.id().equals(authorEntity.getId()) ? author.version() : 0;
+            author = new AuthorView(authorEntity.getId(), authorEntity.getName(), authorEntity.getAge(), authorVersion);
+        }
+        return new BookView(book.isbn(), title, author, book.version());
     }
 
     @Override
     public boolean isPresent(String isbn) {
-        return bookRepository.existsById(isbn);
+        return findOne(isbn).isPresent();
     }
 
     @Override
-    public BookEntity partialUpdate(String isbn, BookEntity bookEntity) {
-        Optional<BookEntity> existing = bookRepository.findById(isbn);
+    public Optional<BookVersion> findVersion(String isbn) {
+        Optional<BookView> cached = ReadRouting.primary() ? null : bookCache.getIfPresent(isbn);
+        if (cached != null) return cached.map(BookView::bookVersion);
 
-        if (existing.isPresent()) {
-            BookEntity existingBook = existing.get();
-            Optional.ofNullable(bookEntity.getTitle()).ifPresent(existingBook::setTitle);
-            Optional.ofNullable(bookEntity.getAuthorEntity()).ifPresent(existingBook::setAuthorEntity);
+        return bookRepository.findVersionByIsbn(isbn);
+    }
 
-            bookRepository.save(existingBook);
+    @Override
+    @Transactional
+    public Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity) {
+        return applyPartialUpdate(isbn, bookEntity, null);
+    }
 
-            return existingBook;
-        } else {
-            throw new RuntimeException("Book does not exist.");
+    @Override
+    @Transactional
+    public Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity, BookVersion expectedVersion) {
+        return applyPartialUpdate(isbn, bookEntity, expectedVersion);
+    }
+
+    /**
+     * The author has to be written first so that the book can reference it; if the book then turns out to be missing
+     * or stale, the transaction is rolled back so the author change does not land on its own. Writing the author bumps
+     * its version, so a conditional update that carries one checks the versions before that, not in the book's UPDATE.
+     */
+    private Optional<BookEntity> applyPartialUpdate(String isbn, BookEntity bookEntity, BookVersion expectedVersion) {
+        writePendingFirst(List.of(isbn));
+        boolean lockedUpFront = expectedVersion != null && bookEntity.getAuthorEntity() != null;
+        if (lockedUpFront && !lockIfAt(isbn, expectedVersion)) return Optional.empty();
+        bookEntity.setAuthorEntity(saveAuthor(bookEntity.getAuthorEntity()));
+
+        Optional<BookEntity> updated = bookRepository.update(isbn, bookEntity, lockedUpFront ? null : expectedVersion);
+        if (updated.isPresent()) {
+            invalidate(updated.get());
+            index(updated.get());
+        } else if (bookEntity.getAuthorEntity() != null) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
         }
+        return updated;
+    }
+
+    /**
+     * Checks the versions and holds the book's row until commit, so nothing can slip in before its UPDATE.
+     */
+    private boolean lockIfAt(String isbn, BookVersion expectedVersion) {
+        Optional<String> locked = expectedVersion.author() == null
+                ? bookRepository.lockIfAt(isbn, expectedVersion.book())
+                : bookRepository.lockIfAt(isbn, expectedVersion.book(), expectedVersion.author());
+        return locked.isPresent();
+    }
+
+    @Override
+    public AsyncWriteResult partialUpdateLater(String isbn, BookEntity bookEntity) {
+        return pendingWrites.offer(isbn, bookEntity);
+    }
+
+    @Override
+    public void flushPendingWrites() {
+        pendingWrites.flush();
+    }
+
+    @Override
+    public boolean hasPendingWrite(String isbn) {
+        return pendingWrites.isPending(isbn);
+    }
+
+    /**
+     * Writes what is still queued for the books ahead of a synchronous write to them, in the same transaction, so that
+     * the queued update cannot land later and overwrite it. Should the transaction roll back, it goes back in the
+     * queue.
+     */
+    private void writePendingFirst(Collection<String> isbns) {
+        Map<String, BookEntity> pending = pendingWrites.take(isbns);
+        if (pending.isEmpty()) return;
+
+        AfterCommit.onRollback(() -> pendingWrites.requeue(pending));
+        writePending(pending);
+    }
+
+    /**
+     * Later non-null fields win, the same as applying both updates in turn.
+     */
+    private static BookEntity merge(BookEntity older, BookEntity newer) {
+        return BookEntity.builder()
+                .title(newer.getTitle() != null ? newer.getTitle() : older.getTitle())
+                .authorEntity(newer.getAuthorEntity() != null ? newer.getAuthorEntity() : older.getAuthorEntity())
+                .build();
+    }
+
+    /**
+     * Runs inside the flush transaction. Books that no longer exist are skipped up front rather than rolling back the
+     * whole batch, so their author changes are not written either. Cache entries are evicted once for the whole batch.
+     */
+    private void writePending(Map<String, BookEntity> batch) {
+        Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(batch.keySet()));
+        List<String> updatedIsbns = new ArrayList<>();
+        Set<Long> updatedAuthorIds = new HashSet<>();
+        batch.forEach((isbn, changes) -> {
+            if (!existing.contains(isbn)) return;
+
+            BookEntity bookEntity = BookEntity.builder()
+                    .title(changes.getTitle())
+                    .authorEntity(saveAuthor(changes.getAuthorEntity()))
+                    .build();
+            bookRepository.update(isbn, bookEntity, null).ifPresent(updated -> {
+                updatedIsbns.add(isbn);
+                AuthorEntity authorEntity = updated.getAuthorEntity();
+                if (authorEntity != null && authorWrites == AuthorWrites.MERGE) updatedAuthorIds.add(authorEntity.getId());
+                index(updated);
+            });
+        });
+
+        if (!updatedIsbns.isEmpty()) cacheInvalidator.books(updatedIsbns);
+        if (!updatedAuthorIds.isEmpty()) cacheInvalidator.authors(updatedAuthorIds);
     }
 
     @Override
+    @Transactional
     public void delete(String isbn) {
-        bookRepository.deleteById(isbn);
+        deleteAll(List.of(isbn));
+    }
+
+    /**
+     * Deletes by key alone. Nothing is loaded, so unlike a removal through the entity manager this never cascades to
+     * the books' authors, and their cache entries stay valid. Updates still queued for the books are discarded, so they
+     * cannot resurface on a book created again under the same isbn.
+     */
+    @Override
+    @Transactional
+    public int deleteAll(List<String> isbns) {
+        List<String> keys = isbns.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, BookEntity> discarded = pendingWrites.take(keys);
+        if (!discarded.isEmpty()) AfterCommit.onRollback(() -> pendingWrites.requeue(discarded));
+
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += BookRepository.DELETE_CHUNK_SIZE) {
+            int to = Math.min(from + BookRepository.DELETE_CHUNK_SIZE, keys.size());
+            deleted += bookRepository.deleteByIsbns(keys.subList(from, to));
+        }
+
+        if (deleted > 0) {
+            cacheInvalidator.books(keys);
+            AfterCommit.run(() -> titleIndexes.forEach(index -> keys.forEach(index::remove)));
+        }
+        return deleted;
+    }
+
+    @Override
+    public Page<SearchHitDto> search(String query, Pageable pageable) {
+        return invertedTitleIndex.search(query, pageable);
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return titleTrie.suggest(prefix, limit);
+    }
+
+    /**
+     * Merged book writes cascade to the embedded author, so its cache entries are evicted along with the book's. A
+     * referenced author is left as it was.
+     */
+    private void invalidate(BookEntity bookEntity) {
+        cacheInvalidator.book(bookEntity.getIsbn());
+        if (bookEntity.getAuthorEntity() != null && authorWrites == AuthorWrites.MERGE) {
+            cacheInvalidator.author(bookEntity.getAuthorEntity().getId());
+        }
+    }
+
+    private void index(BookEntity bookEntity) {
+        String isbn = bookEntity.getIsbn();
+        String title = bookEntity.getTitle();
+        AfterCommit.run(() -> titleIndexes.forEach(index -> index.put(isbn, title)));
     }
 }
@@ -0,0 +1,92 @@
+package com.example.books_api.services.impl;
+
+import com.example.books_api.domain.dto.AuthorView;
+import com.example.books_api.domain.dto.BookView;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts cached lookups after a write. Inside a transaction the eviction is deferred until commit, so a concurrent
+ * reader cannot re-cache the row it is about to replace; Caffeine also waits for an in-flight load of the same key
+ * before removing it.
+ * <p>
+ * With a read replica a miss right after the commit may still load the old row from it, so every eviction runs a
+ * second time once {@code books-api.replica.max-lag} has passed.
+ */
+@Component
+class CacheInvalidator {
+    private final Cache<String, Optional<BookView>> bookCache;
+    private final Cache<Long, Optional<AuthorView>> authorCache;
+    private final Executor afterReplicaLag;
+
+    CacheInvalidator(Cache<String, Optional<BookView>> bookCache, Cache<Long, Optional<AuthorView>> authorCache,
+                     @Value("${books-api.replica.url:}") String replicaUrl,
+                     @Value("${books-api.replica.max-lag:1s}") Duration replicaMaxLag) {
+        this.bookCache = bookCache;
+        this.authorCache = authorCache;
+        this.afterReplicaLag = replicaUrl.isEmpty() || replicaMaxLag.isZero()
+                ? null
+                : CompletableFuture.delayedExecutor(replicaMaxLag.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void evictAfterCommit(Runnable eviction) {
+        AfterCommit.run(() -> {
+            eviction.run();
+            if (afterReplicaLag != null) afterReplicaLag.execute(eviction);
+        });
+    }
+
+    void book(String isbn) {
+        evictAfterCommit(() -> bookCache.invalidate(isbn));
+    }
+
+    void books(Collection<String> isbns) {
+        evictAfterCommit(() -> bookCache.invalidateAll(isbns));
+    }
+
+    /**
+     * Evicts lookups of authors that were just created. Only misses can be cached for them, and no book embeds them
+     * yet, so the book cache is left alone.
+     */
+    void newAuthors(Collection<Long> ids) {
+        evictAfterCommit(() -> authorCache.invalidateAll(ids));
+    }
+
+    /**
+     * Evicts the author together with every cached book that embeds it, since {@code BookView} nests the author.
+     */
+    void author(Long id) {
+        if (id == null) return;
+
+        evictAfterCommit(() -> {
+            authorCache.invalidate(id);
+            bookCache.asMap().values().removeIf(book -> book
+                    .map(BookView::author)
+                    .map(author -> id.equals(author.id()))
+                    .orElse(false));
+        });
+    }
+
+    /**
+     * Batch form of {@link #author(Long)} that walks the book cache once for all the ids.
+     */
+    void authors(Collection<Long> ids) {
+        Set<Long> evicted = Set.copyOf(ids);
+        evictAfterCommit(() -> {
+            authorCache.invalidateAll(evicted);
+            bookCache.asMap().values().removeIf(book -> book
+                    .map(BookView::author)
+                    .map(author -> evicted.contains(author.id()))
+                    .orElse(false));
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.books_api.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Creates the services' write-behind buffers from the {@code books-api.write-behind.*} settings, runs each flush in a
+ * transaction of its own, and drains every buffer on shutdown so that accepted writes are not lost.
+ */
+@Component
+class WriteBehind {
+    private final boolean enabled;
+    private final int capacity;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final TransactionTemplate transactionTemplate;
+    private final List<WriteBehindBuffer<?, ?>> buffers = new CopyOnWriteArrayList<>();
+
+    WriteBehind(@Value("${books-api.write-behind.enabled:false}") boolean enabled,
+                @Value("${books-api.write-behind.capacity:10000}") int capacity,
+                @Value("${books-api.write-behind.flush-size:500}") int flushSize,
+                @Value("${books-api.write-behind.flush-interval:200ms}") Duration flushInterval,
+                PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    <K, V> WriteBehindBuffer<K, V> buffer(String name, BinaryOperator<V> merge, Consumer<Map<K, V>> writer) {
+        Consumer<Map<K, V>> transactional =
+                batch -> transactionTemplate.executeWithoutResult(status -> writer.accept(batch));
+        WriteBehindBuffer<K, V> buffer =
+                new WriteBehindBuffer<>(name, enabled, capacity, flushSize, flushInterval, merge, transactional);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    @PreDestroy
+    void close() {
+        buffers.forEach(WriteBehindBuffer::close);
+    }
+}
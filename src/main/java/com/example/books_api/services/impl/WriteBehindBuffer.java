@@ -0,0 +1,168 @@
+package com.example.books_api.services.impl;
+
+import com.example.books_api.services.AsyncWriteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, coalescing queue of pending updates keyed by row. A second update to a key that is still pending is
+ * merged into the first, so a burst against the same row costs one write. A single thread hands the pending updates to
+ * the writer once {@code flushSize} keys are waiting, or every {@code flushInterval}, whichever comes first.
+ * <p>
+ * The capacity counts keys waiting or being written, and nothing is queued beyond it; the caller gets
+ * {@link AsyncWriteResult#REJECTED} instead. {@link #pending} serves read-your-writes until a flush has committed.
+ * <p>
+ * A batch that fails is retried one key at a time, so one bad row does not take the others down with it. A key that
+ * fails on its own is put back when the failure is transient and dropped otherwise.
+ */
+@Slf4j
+final class WriteBehindBuffer<K, V> {
+    private final String name;
+    private final boolean enabled;
+    private final int capacity;
+    private final int flushSize;
+    private final BinaryOperator<V> merge;
+    private final Consumer<Map<K, V>> writer;
+    private final ScheduledExecutorService flusher;
+
+    private Map<K, V> waiting = new LinkedHashMap<>();
+    private Map<K, V> writing = Map.of();
+
+    WriteBehindBuffer(String name, boolean enabled, int capacity, int flushSize, Duration flushInterval,
+                      BinaryOperator<V> merge, Consumer<Map<K, V>> writer) {
+        this.name = name;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.merge = merge;
+        this.writer = writer;
+
+        if (enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name(name).daemon().factory());
+            long interval = flushInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    AsyncWriteResult offer(K key, V update) {
+        if (!enabled) return AsyncWriteResult.DISABLED;
+
+        boolean full;
+        synchronized (this) {
+            if (!waiting.containsKey(key) && waiting.size() + writing.size() >= capacity) {
+                return AsyncWriteResult.REJECTED;
+            }
+            waiting.merge(key, update, merge);
+            full = waiting.size() >= flushSize;
+        }
+        if (full) flusher.execute(this::flush);
+        return AsyncWriteResult.ACCEPTED;
+    }
+
+    /**
+     * Returns the update not yet committed for {@code key}, merging one being written with one still waiting, or
+     * {@code null} when there is none.
+     */
+    synchronized V pending(K key) {
+        V written = writing.get(key);
+        V queued = waiting.get(key);
+        if (written == null) return queued;
+        return queued == null ? written : merge.apply(written, queued);
+    }
+
+    synchronized boolean isPending(K key) {
+        return waiting.containsKey(key) || writing.containsKey(key);
+    }
+
+    /**
+     * Writes whatever is waiting now, on the calling thread. Flushes never overlap: this one waits for any in progress.
+     */
+    void flush() {
+        synchronized (writer) {
+            Map<K, V> batch;
+            synchronized (this) {
+                if (waiting.isEmpty()) return;
+                batch = waiting;
+                writing = batch;
+                waiting = new LinkedHashMap<>();
+            }
+
+            try {
+                writer.accept(batch);
+            } catch (RuntimeException e) {
+                if (batch.size() > 1) {
+                    log.warn("{} retrying {} pending updates one by one", name, batch.size(), e);
+                }
+                batch.forEach(this::writeAlone);
+            } finally {
+                synchronized (this) {
+                    writing = Map.of();
+                }
+            }
+        }
+    }
+
+    private void writeAlone(K key, V update) {
+        try {
+            writer.accept(Map.of(key, update));
+        } catch (TransientDataAccessException e) {
+            log.warn("{} put back the pending update for {}", name, key, e);
+            requeue(Map.of(key, update));
+        } catch (RuntimeException e) {
+            log.warn("{} dropped the pending update for {}", name, key, e);
+        }
+    }
+
+    /**
+     * Removes and returns what is waiting for {@code keys}, for the caller to write ahead of a synchronous write to the
+     * same rows. A flush already writing any of them is waited for first, so it cannot land after the caller's write.
+     */
+    Map<K, V> take(Collection<K> keys) {
+        if (!enabled || keys.stream().noneMatch(this::isPending)) return Map.of();
+
+        synchronized (writer) {
+            synchronized (this) {
+                Map<K, V> taken = new LinkedHashMap<>();
+                for (K key : keys) {
+                    V update = waiting.remove(key);
+                    if (update != null) taken.put(key, update);
+                }
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Puts updates back in the queue, ahead of anything that has arrived for the same keys since.
+     */
+    synchronized void requeue(Map<K, V> updates) {
+        updates.forEach((key, update) -> {
+            V newer = waiting.get(key);
+            waiting.put(key, newer == null ? update : merge.apply(update, newer));
+        });
+    }
+
+    void close() {
+        if (flusher == null) return;
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
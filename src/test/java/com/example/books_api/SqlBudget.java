@@ -0,0 +1,17 @@
+package com.example.books_api;
+
+import com.example.books_api.config.SqlStatsFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Pins the number of SQL statements a request may issue, as reported by {@link SqlStatsFilter}. A change that adds a
+ * lookup or an N+1 load fails the endpoint's test instead of showing up in production.
+ */
+public final class SqlBudget {
+    private SqlBudget() {}
+
+    public static ResultMatcher statements(int expected) {
+        return MockMvcResultMatchers.header().string(SqlStatsFilter.COUNT_HEADER, String.valueOf(expected));
+    }
+}
@@ -1,23 +1,36 @@
 package com.example.books_api.controllers;
 
+import com.example.books_api.SqlBudget;
 import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.AuthorDto;
 import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.domain.entities.BookEntity;
 import com.example.books_api.services.AuthorService;
+import com.example.books_api.services.BookService;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -25,12 +38,14 @@ import java.util.List;
 public class AuthorControllerIntegrationTest {
     private final MockMvc mockMvc;
     private final AuthorService authorService;
+    private final BookService bookService;
     private final ObjectMapper objectMapper;
 
     @Autowired
-    public AuthorControllerIntegrationTest(MockMvc mockMvc, AuthorService authorService) {
+    public AuthorControllerIntegrationTest(MockMvc mockMvc, AuthorService authorService, BookService bookService) {
         this.mockMvc = mockMvc;
         this.authorService = authorService;
+        this.bookService = bookService;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -46,6 +61,33 @@ public class AuthorControllerIntegrationTest {
                         .content(authorJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                SqlBudget.statements(2)
+        );
+    }
+
+    @Test
+    public void testThatCreateAuthorsInBatchAllocatesIdsFromOneSequenceCall() throws Exception {
+        List<AuthorEntity> authorEntities = TestDataUtil.createTestAuthors();
+        authorEntities.getFirst().setId(99L);
+        String authorsJson = objectMapper.writeValueAsString(authorEntities);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/authors:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(authorsJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                SqlBudget.statements(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].id").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[2].id").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[2].name").value(authorEntities.get(2).getName())
         );
     }
 
@@ -75,6 +117,8 @@ public class AuthorControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -87,11 +131,11 @@ public class AuthorControllerIntegrationTest {
                 MockMvcRequestBuilders.get("/authors")
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
-                MockMvcResultMatchers.jsonPath("$[0].id").isNumber()
+                MockMvcResultMatchers.jsonPath("$.content[0].id").isNumber()
         ).andExpect(
-                MockMvcResultMatchers.jsonPath("$[0].name").value("Jane Foster")
+                MockMvcResultMatchers.jsonPath("$.content[0].name").value("Jane Foster")
         ).andExpect(
-                MockMvcResultMatchers.jsonPath("$[0].age").value("49")
+                MockMvcResultMatchers.jsonPath("$.content[0].age").value("49")
         );
     }
 
@@ -105,6 +149,8 @@ public class AuthorControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -115,6 +161,8 @@ public class AuthorControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -148,6 +196,8 @@ public class AuthorControllerIntegrationTest {
                         .content(authorJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(4)
         );
     }
 
@@ -162,6 +212,8 @@ public class AuthorControllerIntegrationTest {
                         .content(authorJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -198,6 +250,8 @@ public class AuthorControllerIntegrationTest {
                         .content(authorJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(2)
         );
     }
 
@@ -212,6 +266,8 @@ public class AuthorControllerIntegrationTest {
                         .content(authorJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -245,6 +301,38 @@ public class AuthorControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNoContent()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatBatchDeleteAuthorsReturnsTheNumberDeleted() throws Exception {
+        List<AuthorEntity> authorEntities = TestDataUtil.createTestAuthors();
+        for (AuthorEntity authorEntity : authorEntities) authorService.saveAuthor(authorEntity);
+        List<Long> ids = List.of(authorEntities.get(0).getId(), authorEntities.get(1).getId(), 99L);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/authors:batchDelete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.deleted").value(2)
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + authorEntities.get(0).getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + authorEntities.get(2).getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
         );
     }
 
@@ -255,6 +343,208 @@ public class AuthorControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNoContent()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatExportAuthorsStreamsOneJsonDocumentPerLine() throws Exception {
+        List<AuthorEntity> authorEntities = TestDataUtil.createTestAuthors();
+        for (AuthorEntity authorEntity : authorEntities) authorService.saveAuthor(authorEntity);
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/export")
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        String body = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON)
+        ).andReturn().getResponse().getContentAsString();
+
+        List<String> names = new ArrayList<>();
+        for (String line : body.lines().toList()) names.add(objectMapper.readValue(line, AuthorDto.class).getName());
+
+        assertThat(names).containsExactlyInAnyOrderElementsOf(
+                authorEntities.stream().map(AuthorEntity::getName).toList()
+        );
+    }
+
+    @Test
+    public void testThatExportAuthorsStreamsSmileDocumentsWhenAccepted() throws Exception {
+        List<AuthorEntity> authorEntities = TestDataUtil.createTestAuthors();
+        for (AuthorEntity authorEntity : authorEntities) authorService.saveAuthor(authorEntity);
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/export")
+                        .accept("application/x-jackson-smile")
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        byte[] body = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/x-jackson-smile")
+        ).andReturn().getResponse().getContentAsByteArray();
+
+        List<String> names = new ArrayList<>();
+        try (MappingIterator<AuthorDto> authors = new ObjectMapper(new SmileFactory()).readerFor(AuthorDto.class)
+                .readValues(body)) {
+            authors.forEachRemaining(authorDto -> names.add(authorDto.getName()));
+        }
+
+        assertThat(names).containsExactlyInAnyOrderElementsOf(
+                authorEntities.stream().map(AuthorEntity::getName).toList()
+        );
+    }
+
+    @Test
+    public void testThatListAuthorsAfterCursorWalksAllAuthorsInIdOrder() throws Exception {
+        List<AuthorEntity> authorEntities = TestDataUtil.createTestAuthors();
+        for (AuthorEntity authorEntity : authorEntities) authorService.saveAuthor(authorEntity);
+
+        String firstPage = mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?after=&size=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].name").value(authorEntities.get(0).getName())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[1].name").value(authorEntities.get(1).getName())
+        ).andExpect(
+                SqlBudget.statements(1)
+        ).andReturn().getResponse().getContentAsString();
+
+        String next = JsonPath.read(firstPage, "$.next");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(next)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].name").value(authorEntities.get(2).getName())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.next").isEmpty()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatGetAuthorReturnsHttp304NotModifiedOnlyForTheCurrentETag() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthor();
+        authorService.saveAuthor(author);
+        authorService.partialUpdateAuthor(author.getId(), AuthorEntity.builder().name("UPDATED").build());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        ).andExpect(
+                SqlBudget.statements(2)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+    }
+
+    @Test
+    public void testThatConditionalPartialUpdateAuthorFailsWithHttp412WhenETagIsStale() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthor();
+        authorService.saveAuthor(author);
+        authorService.partialUpdateAuthor(author.getId(), AuthorEntity.builder().age(50).build());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name("UPDATED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name("UPDATED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("UPDATED")
+        ).andExpect(
+                SqlBudget.statements(2)
+        );
+    }
+
+    @Test
+    public void testThatGetAuthorStatsAggregatesAgesAndBooks() throws Exception {
+        List<AuthorEntity> authors = new ArrayList<>();
+        for (AuthorEntity author : TestDataUtil.createTestAuthors()) {
+            author.setId(null);
+            authors.add(authorService.saveAuthor(author));
+        }
+        List<BookEntity> books = TestDataUtil.createTestBooks(authors.getFirst());
+        bookService.saveBook(books.get(0).getIsbn(), books.get(0));
+        bookService.saveBook(books.get(1).getIsbn(), books.get(1));
+        books.get(2).setAuthorEntity(authors.get(1));
+        bookService.saveBook(books.get(2).getIsbn(), books.get(2));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/stats?buckets=30,50&top=1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ageHistogram.length()").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ageHistogram[*].authors").value(Matchers.contains(1, 1, 1))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.ageHistogram[1].from").value(30)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksPerAuthor[*].books").value(Matchers.contains(0, 1, 2))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksPerAuthor[*].authors").value(Matchers.contains(1, 1, 1))
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.topAuthors.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.topAuthors[0].name").value("Jane Foster")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.topAuthors[0].books").value(2)
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/stats?buckets=50,30")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
         );
     }
 }
@@ -0,0 +1,147 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.services.AuthorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The queue never flushes on its own here, so every test decides when pending updates are written.
+ */
+@SpringBootTest(properties = {
+        "books-api.write-behind.enabled=true",
+        "books-api.write-behind.capacity=2",
+        "books-api.write-behind.flush-interval=1h"
+})
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class AuthorWriteBehindIntegrationTest {
+    private final MockMvc mockMvc;
+    private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AuthorWriteBehindIntegrationTest(MockMvc mockMvc, AuthorService authorService) {
+        this.mockMvc = mockMvc;
+        this.authorService = authorService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testThatGetAuthorIgnoresIfNoneMatchWhileAnUpdateIsPending() throws Exception {
+        AuthorEntity author = authorService.saveAuthor(TestDataUtil.createTestAuthor());
+
+        patchLater(author.getId(), "PENDING");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("PENDING")
+        ).andExpect(
+                MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG)
+        );
+
+        authorService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+    }
+
+    @Test
+    public void testThatASynchronousWriteIsNotOverwrittenByAnOlderPendingUpdate() throws Exception {
+        List<AuthorEntity> authors = new ArrayList<>();
+        for (AuthorEntity authorEntity : TestDataUtil.createTestAuthors()) {
+            authorEntity.setId(null);
+            authors.add(authorService.saveAuthor(authorEntity));
+        }
+
+        patchLater(authors.get(0).getId(), "PENDING");
+        patchLater(authors.get(1).getId(), "PENDING");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + authors.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name("PATCHED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\"")
+        );
+
+        AuthorDto replacement = AuthorDto.builder().name("REPLACED").age(30).build();
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/authors/" + authors.get(1).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(replacement))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        authorService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + authors.get(0).getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("PATCHED")
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + authors.get(1).getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value("REPLACED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\"")
+        );
+    }
+
+    @Test
+    public void testThatDeletingAnAuthorDiscardsItsPendingUpdate() throws Exception {
+        AuthorEntity author = authorService.saveAuthor(TestDataUtil.createTestAuthor());
+
+        patchLater(author.getId(), "PENDING");
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/authors/" + author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    private ResultActions patchLater(Long id, String name) throws Exception {
+        return mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + id)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name(name).build()))
+        );
+    }
+}
@@ -1,24 +1,40 @@
 package com.example.books_api.controllers;
 
+import com.example.books_api.SqlBudget;
 import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.AuthorDto;
 import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.entities.AuthorEntity;
 import com.example.books_api.domain.entities.BookEntity;
 import com.example.books_api.services.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -27,12 +43,15 @@ public class BookControllerIntegrationTest {
     private final MockMvc mockMvc;
     private final BookService bookService;
     private final ObjectMapper objectMapper;
+    private final Statistics statistics;
 
     @Autowired
-    public BookControllerIntegrationTest(MockMvc mockMvc, BookService bookService) {
+    public BookControllerIntegrationTest(MockMvc mockMvc, BookService bookService,
+                                         EntityManagerFactory entityManagerFactory) {
         this.mockMvc = mockMvc;
         this.bookService = bookService;
         this.objectMapper = new ObjectMapper();
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
     }
 
     @Test
@@ -46,6 +65,8 @@ public class BookControllerIntegrationTest {
                         .content(bookJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -72,6 +93,8 @@ public class BookControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -84,13 +107,89 @@ public class BookControllerIntegrationTest {
                 MockMvcRequestBuilders.get("/books")
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
-                MockMvcResultMatchers.jsonPath("$[0].isbn").value("978-1-2345-6789-0")
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("978-1-2345-6789-0")
         ).andExpect(
-                MockMvcResultMatchers.jsonPath("$[0].title")
+                MockMvcResultMatchers.jsonPath("$.content[0].title")
                         .value("Three Ways to Survive in the Ruined World")
         );
     }
 
+    @Test
+    public void testThatListBooksIssuesTheSameNumberOfStatementsForAnyPageSize() throws Exception {
+        List<BookEntity> bookEntities = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            AuthorEntity author = AuthorEntity.builder().name("Author " + i).age(30 + i).build();
+            bookEntities.add(BookEntity.builder().isbn("isbn-" + i).title("Title " + i).authorEntity(author).build());
+        }
+        bookService.saveBooks(bookEntities);
+
+        List<Long> statementCounts = new ArrayList<>();
+        for (int size : new int[] {5, 30}) {
+            statistics.clear();
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/books?size=" + size)
+                            .contentType(MediaType.APPLICATION_JSON)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            ).andExpect(
+                    MockMvcResultMatchers.jsonPath("$.content[" + (size - 1) + "].author.name").exists()
+            );
+            statementCounts.add(statistics.getPrepareStatementCount());
+        }
+
+        assertThat(statementCounts.getFirst()).isLessThanOrEqualTo(2L);
+        assertThat(statementCounts.getLast()).isEqualTo(statementCounts.getFirst());
+    }
+
+    @Test
+    public void testThatListBooksReturnsTheStablePageEnvelope() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?size=2&page=1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(bookEntities.size() - 2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.size").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.number").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.totalElements").value(bookEntities.size())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.totalPages").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.pageable").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testThatReadingBooksDoesNotHydrateEntities() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(TestDataUtil.createTestAuthor());
+        bookService.saveBook(book.getIsbn(), book);
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("Jane Foster")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.version").doesNotExist()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].author.name").value("Jane Foster")
+        );
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
     @Test
     public void testThatGetBookSuccessfullyReturnsHttp200OkWhenExists() throws Exception {
         BookEntity book = TestDataUtil.createTestBook(null);
@@ -101,6 +200,8 @@ public class BookControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -111,6 +212,8 @@ public class BookControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -143,6 +246,8 @@ public class BookControllerIntegrationTest {
                         .content(bookJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -177,6 +282,8 @@ public class BookControllerIntegrationTest {
                         .content(bookJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlBudget.statements(2)
         );
     }
 
@@ -192,6 +299,8 @@ public class BookControllerIntegrationTest {
                         .content(bookJson)
         ).andExpect(
                 MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
         );
     }
 
@@ -213,6 +322,38 @@ public class BookControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatPartialUpdateBookUpdatesInPlaceWithoutLoadingTheBook() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(null);
+        bookService.saveBook(book.getIsbn(), book);
+        String bookJson = objectMapper.writeValueAsString(BookDto.builder().title("UPDATED").build());
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        );
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+    }
+
     @Test
     public void testThatDeleteBookSuccessfullyReturnsHttp200OkForExistingBook() throws Exception {
         BookEntity bookEntity = TestDataUtil.createTestBook(null);
@@ -223,6 +364,55 @@ public class BookControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNoContent()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatDeleteBookKeepsItsAuthor() throws Exception {
+        BookEntity bookEntity = TestDataUtil.createTestBook(TestDataUtil.createTestAuthor());
+        BookEntity savedBookEntity = bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/books/" + bookEntity.getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.status().isNoContent()
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + savedBookEntity.getAuthorEntity().getId())
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+    }
+
+    @Test
+    public void testThatDeleteBooksDeletesAllListedIsbnsInOneStatement() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/books")
+                        .param("isbn", bookEntities.get(0).getIsbn() + "," + bookEntities.get(1).getIsbn() + ",99")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.deleted").value(2)
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(bookEntities.get(2).getIsbn())
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/suggest").param("prefix", "three")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(0)
         );
     }
 
@@ -233,6 +423,644 @@ public class BookControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
         ).andExpect(
                 MockMvcResultMatchers.status().isNoContent()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatBatchUpsertBooksReturnsPerItemResults() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        bookService.saveBook(bookEntities.getFirst().getIsbn(), bookEntities.getFirst());
+
+        List<BookDto> books = List.of(
+                BookDto.builder().isbn(bookEntities.getFirst().getIsbn()).title("UPDATED").build(),
+                BookDto.builder().isbn(bookEntities.get(1).getIsbn()).title(bookEntities.get(1).getTitle()).build(),
+                BookDto.builder().isbn(bookEntities.get(1).getIsbn()).title("DUPLICATE").build(),
+                BookDto.builder().title("NO ISBN").build()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(books))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].status").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].status").value("CREATED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[2].status").value("FAILED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[3].status").value("FAILED")
+        );
+
+        assertThat(bookService.findOne(bookEntities.getFirst().getIsbn()))
+                .hasValueSatisfying(book -> assertThat(book.title()).isEqualTo("UPDATED"));
+        assertThat(bookService.findOne(bookEntities.get(1).getIsbn()))
+                .hasValueSatisfying(book -> assertThat(book.title()).isEqualTo(bookEntities.get(1).getTitle()));
+    }
+
+    @Test
+    public void testThatBatchUpsertBooksIssuesFewerStatementsPerBookThanSingleUpserts() throws Exception {
+        int count = 40;
+        List<BookDto> singles = new ArrayList<>();
+        List<BookDto> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            singles.add(BookDto.builder().isbn("single-" + i).title("Single " + i).build());
+            batch.add(BookDto.builder().isbn("batch-" + i).title("Batch " + i).build());
+        }
+
+        statistics.clear();
+        for (BookDto book : singles) {
+            mockMvc.perform(
+                    MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(book))
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        assertThat(bookService.findAll()).hasSize(2 * count);
+        assertThat(singleStatements).isGreaterThanOrEqualTo(count);
+        assertThat(batchStatements).isLessThan(singleStatements / 10);
+    }
+
+    @Test
+    public void testThatBatchUpsertOfExistingBooksDoesNotLoadAuthorsOneByOne() throws Exception {
+        int count = 40;
+        List<BookDto> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AuthorEntity author = AuthorEntity.builder().name("Author " + i).age(i).build();
+            BookEntity saved = bookService.saveBook("existing-" + i,
+                    BookEntity.builder().title("Existing " + i).authorEntity(author).build());
+            AuthorDto authorDto = AuthorDto.builder()
+                    .id(saved.getAuthorEntity().getId())
+                    .name("Updated " + i)
+                    .age(i)
+                    .build();
+            batch.add(BookDto.builder().isbn("existing-" + i).title("Updated " + i).author(authorDto).build());
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[" + (count - 1) + "].status").value("UPDATED")
+        ).andExpect(
+                SqlBudget.statements(5)
+        );
+    }
+
+    @Test
+    public void testThatCreateUpdateBookIssuesOneStatementPerRowWritten() throws Exception {
+        BookEntity savedBook = bookService.saveBook("978-1-2345-6789-0",
+                TestDataUtil.createTestBook(TestDataUtil.createTestAuthor()));
+        AuthorEntity savedAuthor = savedBook.getAuthorEntity();
+
+        BookDto newBook = BookDto.builder().isbn("897-2-3456-7890-1").title("Ways of Survival").build();
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + newBook.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newBook))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\"")
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+
+        BookDto updatedBook = TestDataUtil.createTestBookDto(
+                AuthorDto.builder().id(savedAuthor.getId()).name("UPDATED").age(savedAuthor.getAge()).build());
+        statistics.clear();
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + updatedBook.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedBook))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-1\"")
+        );
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testThatSearchBooksRanksTitleMatchesAndFollowsWrites() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search")
+                        .param("q", "Survive APOCALYPSE")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("897-2-3456-7890-1")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[1].isbn").value("978-1-2345-6789-0")
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search?q=ways&size=1&page=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+
+        bookService.partialUpdate("798-3-2456-7890-3", BookEntity.builder().title("Apocalypse Now").build());
+        bookService.delete("897-2-3456-7890-1");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search?q=apocalypse")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].title").value("Apocalypse Now")
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+    }
+
+    @Test
+    public void testThatSuggestBooksReturnsTitlesStartingWithThePrefix() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/suggest")
+                        .param("prefix", "THREE  ways to surv")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].title").value("Three Ways to Survive in Apocalypse")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].title").value("Three Ways to Survive in the Ruined World")
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+
+        bookService.delete("897-2-3456-7890-1");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/suggest")
+                        .param("prefix", "three")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].isbn").value("978-1-2345-6789-0")
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+    }
+
+    @Test
+    public void testThatExportBooksStreamsOneJsonDocumentPerLine() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/export")
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        String body = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON)
+        ).andReturn().getResponse().getContentAsString();
+
+        List<String> isbns = new ArrayList<>();
+        for (String line : body.lines().toList()) isbns.add(objectMapper.readValue(line, BookDto.class).getIsbn());
+
+        assertThat(isbns).containsExactlyInAnyOrderElementsOf(
+                bookEntities.stream().map(BookEntity::getIsbn).toList()
+        );
+    }
+
+    @Test
+    public void testThatListBooksNegotiatesSmile() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(TestDataUtil.createTestAuthor());
+        bookService.saveBook(book.getIsbn(), book);
+
+        byte[] body = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+                        .accept("application/x-jackson-smile")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType("application/x-jackson-smile")
+        ).andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(page.at("/content/0/isbn").asText()).isEqualTo(book.getIsbn());
+        assertThat(page.at("/content/0/author/name").asText()).isEqualTo("Jane Foster");
+    }
+
+    @Test
+    public void testThatExportBooksStreamsCborDocumentsWhenAccepted() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        MvcResult asyncResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/export")
+                        .accept(MediaType.APPLICATION_CBOR)
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        byte[] body = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(asyncResult)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR)
+        ).andReturn().getResponse().getContentAsByteArray();
+
+        List<String> isbns = new ArrayList<>();
+        try (MappingIterator<BookDto> books = new ObjectMapper(new CBORFactory()).readerFor(BookDto.class)
+                .readValues(body)) {
+            books.forEachRemaining(bookDto -> isbns.add(bookDto.getIsbn()));
+        }
+
+        assertThat(isbns).containsExactlyInAnyOrderElementsOf(
+                bookEntities.stream().map(BookEntity::getIsbn).toList()
+        );
+    }
+
+    @Test
+    public void testThatListBooksAfterCursorWalksAllBooksInIsbnOrder() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        String firstPage = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?after=&size=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(bookEntities.get(2).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[1].isbn").value(bookEntities.get(1).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist()
+        ).andExpect(
+                SqlBudget.statements(1)
+        ).andReturn().getResponse().getContentAsString();
+
+        String next = JsonPath.read(firstPage, "$.next");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(next)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(bookEntities.getFirst().getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.next").isEmpty()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatListBooksAfterMalformedCursorReturnsHttp400BadRequest() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?after=not*base64")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+    }
+
+    @Test
+    public void testThatListAuthorBooksPagesByIsbnWithOptionalCount() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(TestDataUtil.createTestAuthor());
+        AuthorEntity author = bookService.saveBook(bookEntities.getFirst().getIsbn(), bookEntities.getFirst())
+                .getAuthorEntity();
+        for (BookEntity bookEntity : bookEntities.subList(1, bookEntities.size())) {
+            bookEntity.setAuthorEntity(author);
+            bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+        }
+
+        AuthorEntity otherAuthor = TestDataUtil.createTestAuthors().get(1);
+        otherAuthor.setId(null);
+        BookEntity otherBook = BookEntity.builder().isbn("111-1-1111-1111-1").title("Omniscient Reader")
+                .authorEntity(otherAuthor).build();
+        bookService.saveBook(otherBook.getIsbn(), otherBook);
+
+        String firstPage = mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + author.getId() + "/books?size=2&count=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(bookEntities.get(2).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[1].isbn").value(bookEntities.get(1).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].author.name").value("Jane Foster")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.count").value(3)
+        ).andExpect(
+                SqlBudget.statements(3)
+        ).andReturn().getResponse().getContentAsString();
+
+        String next = JsonPath.read(firstPage, "$.next");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(next)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(bookEntities.getFirst().getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.count").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.next").isEmpty()
+        ).andExpect(
+                SqlBudget.statements(3)
+        );
+    }
+
+    @Test
+    public void testThatListAuthorBooksReturnsHttp404NotFoundForNonExistingAuthor() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/99/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+    }
+
+    @Test
+    public void testThatGetBookIsServedFromCacheOnRepeatedReads() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(null);
+        bookService.saveBook(book.getIsbn(), book);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                            .contentType(MediaType.APPLICATION_JSON)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            );
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/cache/stats")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.books.missCount").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.books.hitCount").value(1)
+        );
+    }
+
+    @Test
+    public void testThatUpdatingAnAuthorRefreshesCachedBooksThatEmbedIt() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(TestDataUtil.createTestAuthor());
+        BookEntity savedBook = bookService.saveBook(book.getIsbn(), book);
+        Long authorId = savedBook.getAuthorEntity().getId();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("Jane Foster")
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + authorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name("UPDATED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("UPDATED")
+        );
+    }
+
+    @Test
+    public void testThatGetBookReturnsHttp304NotModifiedWhenETagMatches() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(null);
+        bookService.saveBook(book.getIsbn(), book);
+
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\"")
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        ).andExpect(
+                MockMvcResultMatchers.content().string("")
+        ).andExpect(
+                SqlBudget.statements(0)
+        );
+    }
+
+    @Test
+    public void testThatUpdatingTheAuthorChangesTheBookETag() throws Exception {
+        BookEntity book = bookService.saveBook("978-1-2345-6789-0",
+                TestDataUtil.createTestBook(TestDataUtil.createTestAuthor()));
+        String bookJson = objectMapper.writeValueAsString(BookDto.builder().title("UPDATED").build());
+
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0-0\"")
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/authors/" + book.getAuthorEntity().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AuthorDto.builder().name("UPDATED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0-1\"")
+        ).andExpect(
+                SqlBudget.statements(2)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, "\"0-1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-1\"")
+        ).andExpect(
+                SqlBudget.statements(2)
+        );
+    }
+
+    @Test
+    public void testThatConditionalPartialUpdateBookCanChangeTheAuthor() throws Exception {
+        BookEntity book = bookService.saveBook("978-1-2345-6789-0",
+                TestDataUtil.createTestBook(TestDataUtil.createTestAuthor()));
+        AuthorEntity author = book.getAuthorEntity();
+        String bookJson = objectMapper.writeValueAsString(BookDto.builder()
+                .title("UPDATED")
+                .author(AuthorDto.builder().id(author.getId()).name("RENAMED").age(author.getAge()).build())
+                .build());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, "\"0-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("RENAMED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-1\"")
+        ).andExpect(
+                SqlBudget.statements(4)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, "\"0-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("RENAMED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-1\"")
+        );
+    }
+
+    @Test
+    public void testThatConditionalFullUpdateBookFailsWithHttp412WhenETagIsStale() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        bookService.saveBook(bookEntities.getFirst().getIsbn(), bookEntities.getFirst());
+
+        String bookJson = objectMapper.writeValueAsString(bookEntities.get(1));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookEntities.getFirst().getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        ).andExpect(
+                SqlBudget.statements(3)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookEntities.getFirst().getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(bookJson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        ).andExpect(
+                SqlBudget.statements(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + bookEntities.getFirst().getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
         );
     }
 }
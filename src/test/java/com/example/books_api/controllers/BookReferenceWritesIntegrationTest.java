@@ -0,0 +1,161 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.SqlBudget;
+import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.AuthorDto;
+import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.entities.AuthorEntity;
+import com.example.books_api.services.AuthorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+@SpringBootTest(properties = "books-api.books.author-writes=reference")
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class BookReferenceWritesIntegrationTest {
+    private final MockMvc mockMvc;
+    private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookReferenceWritesIntegrationTest(MockMvc mockMvc, AuthorService authorService) {
+        this.mockMvc = mockMvc;
+        this.authorService = authorService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testThatCreateBookLinksAuthorByIdWithoutTouchingIt() throws Exception {
+        AuthorEntity author = authorService.saveAuthor(TestDataUtil.createTestAuthor());
+        BookDto book = TestDataUtil.createTestBookDto(AuthorDto.builder().id(author.getId()).name("IGNORED").build());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                SqlBudget.statements(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.id").value(author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").doesNotExist()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.id").value(author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("Jane Foster")
+        );
+    }
+
+    @Test
+    public void testThatConditionalUpdateLinksAuthorByIdWithoutTouchingIt() throws Exception {
+        AuthorEntity author = authorService.saveAuthor(TestDataUtil.createTestAuthor());
+        BookDto book = TestDataUtil.createTestBookDto(null);
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        book.setAuthor(AuthorDto.builder().id(author.getId()).name("IGNORED").build());
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.id").value(author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").doesNotExist()
+        ).andExpect(
+                MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("Jane Foster")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-0\"")
+        );
+    }
+
+    @Test
+    public void testThatBatchUpsertLinksAuthorsByIdWithoutTouchingThem() throws Exception {
+        AuthorEntity author = authorService.saveAuthor(TestDataUtil.createTestAuthor());
+        AuthorDto reference = AuthorDto.builder().id(author.getId()).name("IGNORED").build();
+        List<BookDto> books = List.of(
+                BookDto.builder().isbn("isbn-1").title("First").author(reference).build(),
+                BookDto.builder().isbn("isbn-2").title("Second").author(reference).build()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(books))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[*].status").value(Matchers.everyItem(Matchers.is("CREATED")))
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-2")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.id").value(author.getId())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.author.name").value("Jane Foster")
+        );
+    }
+
+    @Test
+    public void testThatBatchUpsertReturnsHttp422ForUnknownAuthor() throws Exception {
+        List<BookDto> books = List.of(
+                BookDto.builder().isbn("isbn-1").title("First").author(AuthorDto.builder().id(99L).build()).build()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(books))
+        ).andExpect(
+                MockMvcResultMatchers.status().isUnprocessableEntity()
+        );
+    }
+
+    @Test
+    public void testThatCreateBookReturnsHttp422ForUnknownAuthor() throws Exception {
+        BookDto book = TestDataUtil.createTestBookDto(AuthorDto.builder().id(99L).build());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isUnprocessableEntity()
+        );
+    }
+}
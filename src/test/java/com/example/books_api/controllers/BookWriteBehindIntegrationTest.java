@@ -0,0 +1,188 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.BookDto;
+import com.example.books_api.domain.entities.BookEntity;
+import com.example.books_api.services.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+/**
+ * The queue never flushes on its own here, so every test decides when pending updates are written.
+ */
+@SpringBootTest(properties = {
+        "books-api.write-behind.enabled=true",
+        "books-api.write-behind.capacity=2",
+        "books-api.write-behind.flush-interval=1h"
+})
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class BookWriteBehindIntegrationTest {
+    private final MockMvc mockMvc;
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookWriteBehindIntegrationTest(MockMvc mockMvc, BookService bookService) {
+        this.mockMvc = mockMvc;
+        this.bookService = bookService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testThatAsyncPartialUpdatesAreCoalescedAndReadBackBeforeTheyAreWritten() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+        String isbn = bookEntities.getFirst().getIsbn();
+
+        for (String title : List.of("FIRST", "SECOND")) {
+            patchLater(isbn, title).andExpect(
+                    MockMvcResultMatchers.status().isAccepted()
+            );
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + isbn)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("SECOND")
+        );
+
+        patchLater(bookEntities.get(1).getIsbn(), "OTHER").andExpect(
+                MockMvcResultMatchers.status().isAccepted()
+        );
+        patchLater(bookEntities.get(2).getIsbn(), "FULL").andExpect(
+                MockMvcResultMatchers.status().isTooManyRequests()
+        );
+
+        bookService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + isbn)
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("SECOND")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        );
+    }
+
+    @Test
+    public void testThatGetBookIgnoresIfNoneMatchWhileAnUpdateIsPending() throws Exception {
+        BookEntity book = TestDataUtil.createTestBook(null);
+        bookService.saveBook(book.getIsbn(), book);
+
+        patchLater(book.getIsbn(), "PENDING");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("PENDING")
+        ).andExpect(
+                MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG)
+        );
+
+        bookService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+    }
+
+    @Test
+    public void testThatASynchronousWriteIsNotOverwrittenByAnOlderPendingUpdate() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        patchLater(bookEntities.get(0).getIsbn(), "PENDING");
+        patchLater(bookEntities.get(1).getIsbn(), "PENDING");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + bookEntities.get(0).getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDto.builder().title("PATCHED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\"")
+        );
+
+        BookDto replacement = BookDto.builder().isbn(bookEntities.get(1).getIsbn()).title("REPLACED").build();
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + replacement.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(replacement))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2\"")
+        );
+
+        bookService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + bookEntities.get(0).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("PATCHED")
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + replacement.getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("REPLACED")
+        );
+    }
+
+    @Test
+    public void testThatAFailingPendingUpdateDoesNotDropTheOthers() throws Exception {
+        List<BookEntity> bookEntities = TestDataUtil.createTestBooks(null);
+        for (BookEntity bookEntity : bookEntities) bookService.saveBook(bookEntity.getIsbn(), bookEntity);
+
+        patchLater(bookEntities.get(0).getIsbn(), "x".repeat(300));
+        patchLater(bookEntities.get(1).getIsbn(), "WRITTEN");
+
+        bookService.flushPendingWrites();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + bookEntities.get(0).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value(bookEntities.get(0).getTitle())
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + bookEntities.get(1).getIsbn())
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("WRITTEN")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        );
+    }
+
+    private ResultActions patchLater(String isbn, String title) throws Exception {
+        return mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + isbn)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDto.builder().title(title).build()))
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.TestDataUtil;
+import com.example.books_api.domain.dto.BookDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsIntegrationTest {
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public MetricsIntegrationTest(MockMvc mockMvc, MeterRegistry meterRegistry) {
+        this.mockMvc = mockMvc;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testThatRequestsAreTimedPerEndpointTemplateAndStatus() throws Exception {
+        BookDto book = TestDataUtil.createTestBookDto(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        assertThat(meterRegistry.get("http.server.requests")
+                .tag("uri", "/books/{isbn}").tag("method", "GET").tag("status", "200")
+                .timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("http.server.requests")
+                .tag("uri", "/books/{isbn}").tag("method", "GET").tag("status", "404")
+                .timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("books.mapper")
+                .tag("mapper", "BookMapperImpl").tag("method", "mapFrom")
+                .timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("books.mapper")
+                .tag("mapper", "AuthorMapperImpl").tag("method", "mapFrom")
+                .timer().count()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testThatPrometheusEndpointExposesRequestJpaAndPoolMetrics() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/actuator/prometheus")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().string(containsString("http_server_requests_seconds_bucket{"))
+        ).andExpect(
+                MockMvcResultMatchers.content().string(containsString("uri=\"/authors\""))
+        ).andExpect(
+                MockMvcResultMatchers.content().string(containsString("hibernate_statements_total"))
+        ).andExpect(
+                MockMvcResultMatchers.content().string(containsString("hikaricp_connections_active"))
+        );
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.books_api.controllers;
+
+import com.example.books_api.TestDataUtil;
+import com.example.books_api.config.ReadYourWritesFilter;
+import com.example.books_api.domain.dto.BookDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica. Nothing replicates between them, so a row
+ * written through the API only shows up in reads that went to the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "books-api.replica.url=jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "books-api.replica.read-your-writes=1h",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "books-api.replica.hikari.maximum-pool-size=3",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@AutoConfigureMockMvc
+public class ReplicaRoutingIntegrationTest {
+    private final MockMvc mockMvc;
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ReplicaRoutingIntegrationTest(MockMvc mockMvc,
+                                         @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                         @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        this.mockMvc = mockMvc;
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @BeforeEach
+    public void copySchemaToReplica() {
+        primary.queryForList("script nodata", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replica::execute);
+    }
+
+    @Test
+    public void testThatListBooksReadsTheReplica() throws Exception {
+        BookDto book = TestDataUtil.createTestBookDto(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.totalElements").value(0)
+        );
+
+        replica.update("insert into books (isbn, title, version) values (?, ?, 0)", book.getIsbn(), book.getTitle());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.totalElements").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(book.getIsbn())
+        );
+    }
+
+    @Test
+    public void testThatAClientReadsItsOwnWritesFromThePrimary() throws Exception {
+        BookDto book = TestDataUtil.createTestBookDto(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value(book.getIsbn())
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books")
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "someone-else")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.page.totalElements").value(0)
+        );
+    }
+
+    @Test
+    public void testThatAClientReadsItsOwnWritesPastTheCache() throws Exception {
+        BookDto book = TestDataUtil.createTestBookDto(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + book.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+        replica.update("insert into books (isbn, title, version) values (?, ?, 0)", book.getIsbn(), book.getTitle());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + book.getIsbn())
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BookDto.builder().title("UPDATED").build()))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "someone-else")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value(book.getTitle())
+        );
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + book.getIsbn())
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\"")
+        );
+    }
+
+    @Test
+    public void testThatEachPoolTakesItsOwnHikariSettings() throws Exception {
+        HikariDataSource primaryPool = primaryDataSource.unwrap(HikariDataSource.class);
+        HikariDataSource replicaPool = replicaDataSource.unwrap(HikariDataSource.class);
+
+        assertThat(primaryPool.getPoolName()).isEqualTo("primary");
+        assertThat(primaryPool.getMaximumPoolSize()).isEqualTo(4);
+        assertThat(primaryPool.getConnectionTimeout()).isEqualTo(5000);
+        assertThat(primaryPool.isReadOnly()).isFalse();
+        assertThat(replicaPool.getPoolName()).isEqualTo("replica");
+        assertThat(replicaPool.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(replicaPool.isReadOnly()).isTrue();
+    }
+}